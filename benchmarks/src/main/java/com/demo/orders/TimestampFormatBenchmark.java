@@ -0,0 +1,57 @@
+package com.demo.orders;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached-day formatting against the formatter it replaced, run it with the gc profiler to compare
+ * the bytes allocated per call. sameDay formats instants of the last day, the way fresh orders come
+ * in, spread formats instants over ten years, so most calls miss the day cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampFormatBenchmark {
+    private static final int SIZE = 1024;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"true", "false"})
+    public boolean sameDay;
+
+    private final long[] epochMillis = new long[SIZE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        long now = System.currentTimeMillis();
+        long range = sameDay ? TimeUnit.DAYS.toMillis(1) : TimeUnit.DAYS.toMillis(3650);
+        for (int i = 0; i < SIZE; i++) {
+            epochMillis[i] = now - random.nextLong(range);
+        }
+    }
+
+    @Benchmark
+    public String dateTimeFormatter() {
+        Instant instant = Instant.ofEpochMilli(nextEpochMillis());
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault()).format(FORMATTER);
+    }
+
+    @Benchmark
+    public String cached() {
+        return CommonUtils.mapEpochMillisToTimestamp(nextEpochMillis());
+    }
+
+    private long nextEpochMillis() {
+        return epochMillis[next++ & (SIZE - 1)];
+    }
+}
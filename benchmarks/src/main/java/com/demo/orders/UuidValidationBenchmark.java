@@ -0,0 +1,86 @@
+package com.demo.orders;
+
+import com.demo.orders.exceptions.ValidationException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written id check against the UUID.fromString one it replaced. validate adds the cost of
+ * raising the error for invalid input, stackless now, with a full stack trace before. invalid ids
+ * mix a wrong length, which both reject early, with a bad char in the last group.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidValidationBenchmark {
+    private static final int SIZE = 1024;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private final String[] ids = new String[SIZE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < SIZE; i++) {
+            String id = UUID.randomUUID().toString();
+            if (!valid) {
+                id = i % 2 == 0 ? id.substring(0, 35) + "z" : id.substring(4);
+            }
+            ids[i] = id;
+        }
+    }
+
+    @Benchmark
+    public boolean fromString() {
+        try {
+            UUID.fromString(nextId());
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean handWritten() {
+        return CommonUtils.isUUID(nextId());
+    }
+
+    @Benchmark
+    public Object validateWithStackTrace() {
+        String id = nextId();
+        try {
+            UUID.fromString(id);
+            return id;
+        } catch (Exception ex) {
+            return new RuntimeException(String.format("Invalid identifier format for property '%s'. Value: '%s'", "id", id));
+        }
+    }
+
+    @Benchmark
+    public Object validate() {
+        String id = nextId();
+        try {
+            CommonUtils.validateUUID(id, "id");
+            return id;
+        } catch (ValidationException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public UUID toUUID() {
+        String id = nextId();
+        return valid ? CommonUtils.toUUID(id, "id") : null;
+    }
+
+    private String nextId() {
+        return ids[next++ & (SIZE - 1)];
+    }
+}
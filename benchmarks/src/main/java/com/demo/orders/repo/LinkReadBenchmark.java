@@ -0,0 +1,101 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The client side of reading the links of one order: decoding the reply and mapping it, for whole
+ * link documents against the {orderId, productId} projection of findLinkIdsByOrderId. The bytes on
+ * the wire per order are printed once per trial. The server side, where the projection is answered
+ * from the index without fetching documents, is not part of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkReadBenchmark {
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    @Param({"5", "50"})
+    int productsPerOrder;
+
+    private MappingMongoConverter converter;
+    private List<byte[]> documents;
+    private List<byte[]> linkIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IdStorage idStorage = new IdStorage(false);
+        MongoCustomConversions conversions = idStorage.mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        idStorage.applyTo(converter);
+
+        String orderId = UUID.randomUUID().toString();
+        documents = new ArrayList<>(productsPerOrder);
+        linkIds = new ArrayList<>(productsPerOrder);
+        for (int i = 0; i < productsPerOrder; i++) {
+            LinkOrderProducts link = new LinkOrderProducts();
+            link.setId(new ObjectId().toHexString());
+            link.setOrderId(orderId);
+            link.setProductId(UUID.randomUUID().toString());
+            Document stored = new Document();
+            converter.write(link, stored);
+            documents.add(encode(stored));
+            linkIds.add(encode(new Document("orderId", stored.get("orderId")).append("productId", stored.get("productId"))));
+        }
+        System.out.printf("%nBytes per order: documents %d, link ids %d%n", size(documents), size(linkIds));
+    }
+
+    @Benchmark
+    public void documents(Blackhole blackhole) {
+        read(documents, blackhole);
+    }
+
+    @Benchmark
+    public void linkIds(Blackhole blackhole) {
+        read(linkIds, blackhole);
+    }
+
+    private void read(List<byte[]> reply, Blackhole blackhole) {
+        for (byte[] bytes : reply) {
+            Document document = CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build());
+            blackhole.consume(converter.read(LinkOrderProducts.class, document).getProductId());
+        }
+    }
+
+    private static byte[] encode(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        CODEC.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private static int size(List<byte[]> documents) {
+        return documents.stream().mapToInt(bytes -> bytes.length).sum();
+    }
+}
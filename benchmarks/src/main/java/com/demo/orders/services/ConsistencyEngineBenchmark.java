@@ -0,0 +1,114 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.LinksOrdersProductsRepositoryCustomImpl;
+import com.demo.orders.repo.OrdersRepository;
+import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.OutboxEntry;
+import com.demo.orders.repo.entities.Product;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes of an order with its links through each consistency engine, against a live replica set
+ * given by -Dmongo.uri (transactions need one, a single node is enough). Every operation first writes
+ * an order with its links outside of the invoker, which costs the same for all engines, and then
+ * deletes them through it: in one transaction, as two plain deletes, or as the two deletes wrapped in
+ * an insert and a remove of an outbox entry.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsistencyEngineBenchmark {
+
+    @Param({"NONE", "TRANSACTIONS", "OUTBOX"})
+    ConsistencyEngine engine;
+
+    @Param({"5"})
+    int productsPerOrder;
+
+    private MongoClient client;
+    private MongoTemplate template;
+    private OrdersRepository ordersRepository;
+    private LinksOrdersProductsRepository linksOrdersProductsRepository;
+    private TransactionalInvoker invoker;
+    private List<String> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("mongo.uri", "mongodb://localhost:27017/?replicaSet=rs0"));
+        MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "consistency-benchmark");
+        template = new MongoTemplate(factory, converter(factory));
+        template.getDb().drop();
+        // collections cannot be created inside a transaction on older servers
+        List.of(Order.class, Product.class, LinkOrderProducts.class, OutboxEntry.class).forEach(template::createCollection);
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(template);
+        ordersRepository = repositories.getRepository(OrdersRepository.class);
+        ProductsRepository productsRepository = repositories.getRepository(ProductsRepository.class);
+        linksOrdersProductsRepository = repositories.getRepository(LinksOrdersProductsRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new LinksOrdersProductsRepositoryCustomImpl(template)));
+        OrderProductSnapshots snapshots = new OrderProductSnapshots(template, linksOrdersProductsRepository, null, new IdStorage(false), false);
+        OutboxActions outboxActions = new OutboxActions(ordersRepository, productsRepository, linksOrdersProductsRepository, snapshots);
+        invoker = new TransactionalInvoker(engine == ConsistencyEngine.TRANSACTIONS ? new MongoTransactionManager(factory) : null,
+                template, outboxActions, engine, 5);
+
+        productIds = new ArrayList<>(productsPerOrder);
+        for (int i = 0; i < productsPerOrder; i++) {
+            productIds.add(UUID.randomUUID().toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long left = template.count(new Query(), OutboxEntry.class);
+        System.out.printf("%nOutbox entries left: %d%n", left);
+        template.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public void deleteOrder() {
+        long time = System.currentTimeMillis();
+        String orderId = UUID.randomUUID().toString();
+        ordersRepository.save(new Order(orderId, "Order", time, time));
+        linksOrdersProductsRepository.linkAll(orderId, productIds);
+        invoker.invokeTransactional(OutboxEntry.of(OutboxEntry.Action.DELETE_ORDERS, List.of(orderId)));
+    }
+
+    private static MappingMongoConverter converter(MongoDatabaseFactory factory) {
+        IdStorage idStorage = new IdStorage(false);
+        MongoCustomConversions conversions = idStorage.mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        idStorage.applyTo(converter);
+        return converter;
+    }
+}
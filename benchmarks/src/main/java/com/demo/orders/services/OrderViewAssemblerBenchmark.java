@@ -0,0 +1,95 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import com.demo.orders.services.executors.RejectionPolicy;
+import com.demo.orders.services.ids.RandomIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembles order views against in-memory repositories, with products served from a warm product
+ * cache like in steady state. Compares joining through the links with embedded snapshots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderViewAssemblerBenchmark {
+    private static final int PRODUCTS_PER_ORDER = 5;
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"1", "100", "1000"})
+    int orders;
+
+    @Param({"false", "true"})
+    boolean embeddedSnapshots;
+
+    private List<Order> stored;
+    private TaskLanes taskLanes;
+    private ProductsService productsService;
+    private OrderViewAssembler orderViewAssembler;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        long time = System.currentTimeMillis();
+        Map<String, Product> products = new HashMap<>();
+        Map<String, List<LinkOrderProducts>> links = new HashMap<>();
+        stored = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            String orderId = UUID.randomUUID().toString();
+            List<ProductSnapshot> snapshots = new ArrayList<>();
+            for (int j = 0; j < PRODUCTS_PER_ORDER; j++) {
+                Product product = new Product(UUID.randomUUID().toString(), "Product " + j, 10.0, time, time);
+                products.put(product.getProductId(), product);
+                snapshots.add(ProductSnapshot.of(product));
+                LinkOrderProducts link = new LinkOrderProducts();
+                link.setOrderId(orderId);
+                link.setProductId(product.getProductId());
+                links.computeIfAbsent(orderId, id -> new ArrayList<>()).add(link);
+            }
+            stored.add(new Order(orderId, "Order " + i, time, time, embeddedSnapshots ? snapshots : null));
+        }
+
+        ProductsRepository productsRepository = RepositoryStandIn.of(ProductsRepository.class, Map.of(
+                "findByProductIdIn", args -> ((List<String>) args[0]).stream().map(products::get).filter(Objects::nonNull).toList()));
+        LinksOrdersProductsRepository linksRepository = RepositoryStandIn.of(LinksOrdersProductsRepository.class, Map.of(
+                "findLinkIdsByOrderIdIn", args -> ((Collection<String>) args[0]).stream().flatMap(id -> links.getOrDefault(id, List.of()).stream()).toList()));
+
+        ProductCache productCache = new ProductCache(productsRepository, products.size() + 1, 3600, 5);
+        OrderProductSnapshots orderProductSnapshots = new OrderProductSnapshots(null, linksRepository, productCache, new IdStorage(false), embeddedSnapshots);
+        taskLanes = new TaskLanes(1, 1, false, RejectionPolicy.BLOCK, 100, 16, 1, 16, 1, 16, 1, 1);
+        // assembly only reads through the cache, the write side collaborators are never touched
+        productsService = new ProductsService(null, new OperationRegistry(16), null,
+                taskLanes, productCache, orderProductSnapshots, new RandomIdGenerator(), 16, 1);
+        orderViewAssembler = new OrderViewAssembler(linksRepository, productsService, orderProductSnapshots, BATCH_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        productsService.cleanUp();
+        taskLanes.cleanUp();
+    }
+
+    @Benchmark
+    public void assembleAll(Blackhole blackhole) {
+        orderViewAssembler.assembleAll(stored.iterator(), blackhole::consume);
+    }
+}
@@ -0,0 +1,25 @@
+package com.demo.orders.services;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An in-memory stand-in for a Spring Data repository that answers only the given methods, so the
+ * benchmarks measure our code and not a database round trip.
+ */
+final class RepositoryStandIn {
+
+    private RepositoryStandIn() {
+    }
+
+    static <T> T of(Class<T> repository, Map<String, Function<Object[], Object>> methods) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, (proxy, method, args) -> {
+            Function<Object[], Object> body = methods.get(method.getName());
+            if (body == null) {
+                throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName() + " is not part of the stand-in");
+            }
+            return body.apply(args);
+        }));
+    }
+}
@@ -0,0 +1,58 @@
+package com.demo.orders.services;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning entities into views, run it with the gc profiler to see the bytes allocated per
+ * mapping next to the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewMappingBenchmark {
+
+    private Product product;
+    private ProductSnapshot snapshot;
+    private Order order;
+    private long epochMillis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        epochMillis = System.currentTimeMillis();
+        product = new Product(UUID.randomUUID().toString(), "Product", 10.0, epochMillis, epochMillis);
+        snapshot = ProductSnapshot.of(product);
+        order = new Order(UUID.randomUUID().toString(), "Order", epochMillis, epochMillis);
+    }
+
+    @Benchmark
+    public ProductViewDto productToView() {
+        return ProductsService.mapEntityToViewDto(product);
+    }
+
+    @Benchmark
+    public ProductViewDto snapshotToView() {
+        return OrderViewAssembler.mapSnapshotToView(snapshot);
+    }
+
+    @Benchmark
+    public OrderViewDto orderToView() {
+        return OrderViewAssembler.mapEntityToViewWithEmptyProducts(order);
+    }
+
+    @Benchmark
+    public String timestamp() {
+        return CommonUtils.mapEpochMillisToTimestamp(epochMillis);
+    }
+}
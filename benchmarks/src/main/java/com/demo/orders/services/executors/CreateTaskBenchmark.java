@@ -0,0 +1,45 @@
+package com.demo.orders.services.executors;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a create task from submission until its future completes, the distribution shows the
+ * hand-off cost of the lane and the shared pool.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateTaskBenchmark {
+    private static final Runnable NO_OP = () -> {
+    };
+
+    @Param({"1", "6"})
+    int threads;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    ExecutionMode mode;
+
+    private TaskExecutor createLane;
+    private TaskManager taskManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        createLane = new TaskExecutor("bench-create", threads, new QueueLimits(10_000, RejectionPolicy.BLOCK, 1000), mode);
+        taskManager = new TaskManager(createLane);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        createLane.shutdown();
+    }
+
+    @Benchmark
+    public void submitCreateTask() {
+        taskManager.submitCreateTask(NO_OP).join();
+    }
+}
@@ -0,0 +1,56 @@
+package com.demo.orders.services.executors;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of keyed submission, from one key that serializes everything to as many keys as tasks,
+ * on pools of different sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderedTaskManagerBenchmark {
+    private static final int TASKS = 1024;
+    private static final long WORK_TOKENS = 100;
+
+    @Param({"1", "16", "1024"})
+    int keys;
+
+    @Param({"1", "4", "16"})
+    int threads;
+
+    private OrderedTaskManager manager;
+    private String[] keyNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new OrderedTaskManager("bench-ordered", threads, new QueueLimits(TASKS, RejectionPolicy.BLOCK, 1000));
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "key-" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void submitOrdered() {
+        // tasks of a key complete in order, waiting for the last one of every key waits for all
+        CompletableFuture<?>[] lastOfKey = new CompletableFuture[keys];
+        for (int i = 0; i < TASKS; i++) {
+            lastOfKey[i % keys] = manager.submitTask(keyNames[i % keys], () -> Blackhole.consumeCPU(WORK_TOKENS));
+        }
+        CompletableFuture.allOf(lastOfKey).join();
+    }
+}
@@ -0,0 +1,31 @@
+package com.demo.orders.services.ids;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one id, run it with -t to see the time ordered generator under contention on its one
+ * atomic and with the gc profiler for the bytes per id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator random = new RandomIdGenerator();
+    private final IdGenerator timeOrdered = new TimeOrderedIdGenerator();
+
+    @Benchmark
+    public String random() {
+        return random.newId();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.newId();
+    }
+}
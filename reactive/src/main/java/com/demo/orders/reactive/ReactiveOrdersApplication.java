@@ -0,0 +1,21 @@
+package com.demo.orders.reactive;
+
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.services.ids.IdGenerators;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The orders and products API on WebFlux and the reactive Mongo driver. It shares the collections,
+ * entities and dtos of the blocking application, writes complete within the request instead of
+ * being queued as operations. Ids are stored the way {@link IdStorage} of the blocking application
+ * says, run its migration before switching binaryIds on here.
+ */
+@SpringBootApplication
+@Import({IdStorage.class, IdGenerators.class})
+public class ReactiveOrdersApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveOrdersApplication.class, args);
+    }
+}
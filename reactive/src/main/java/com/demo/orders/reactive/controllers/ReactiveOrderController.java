@@ -0,0 +1,122 @@
+package com.demo.orders.reactive.controllers;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.OrderDto;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.exceptions.ValidationException;
+import com.demo.orders.reactive.services.ReactiveOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/orders")
+public class ReactiveOrderController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-After";
+    private static final int MAX_PAGE_LIMIT = 1000;
+
+    private final ReactiveOrderService orderService;
+
+    public ReactiveOrderController(ReactiveOrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create a new order")
+    @ApiResponse(responseCode = "201", description = "Created",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = OrderDto.class)))
+    public Mono<ResponseEntity<String>> createOrder(@RequestBody OrderDto order) {
+        return orderService.createOrder(order).map(id -> ResponseEntity.status(HttpStatus.CREATED).body(id));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get an order by id")
+    @ApiResponse(responseCode = "200", description = "Order was found",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = OrderViewDto.class)))
+    public Mono<ResponseEntity<OrderViewDto>> getOrderById(@PathVariable String id) {
+        CommonUtils.validateUUID(id, "id");
+        return orderService.getOrderById(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    @Operation(summary = "Get all orders, or a page of orders sorted by id when 'after' or 'limit' is given")
+    @ApiResponse(responseCode = "200", description = "Successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = OrderViewDto.class)))
+    public Mono<ResponseEntity<Flux<OrderViewDto>>> getAllOrders(@RequestParam(required = false) String after,
+                                                                 @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(orderService.getAllOrders()));
+        }
+        if (after != null) {
+            CommonUtils.validateUUID(after, "after");
+        }
+        int pageLimit = limit == null ? MAX_PAGE_LIMIT : limit;
+        if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
+            throw new ValidationException(String.format("Property 'limit' must be between 1 and %d. Value: '%d'", MAX_PAGE_LIMIT, pageLimit));
+        }
+        // the cursor header goes out before the body, so a page is collected first
+        return orderService.getOrdersPage(after, pageLimit).collectList().map(orders -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (orders.size() == pageLimit) {
+                response.header(NEXT_CURSOR_HEADER, orders.get(orders.size() - 1).getOrderId());
+            }
+            return response.body(Flux.fromIterable(orders));
+        });
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all orders as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = OrderViewDto.class)))
+    public Flux<OrderViewDto> streamAllOrders() {
+        return orderService.getAllOrders();
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update an order by id")
+    @ApiResponse(responseCode = "200", description = "Updated",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = OrderViewDto.class)))
+    public Mono<ResponseEntity<String>> updateOrder(@PathVariable String id, @RequestBody OrderDto order) {
+        CommonUtils.validateUUID(id, "id");
+        return orderService.updateOrder(id, order).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Remove an order by id")
+    @ApiResponse(responseCode = "204", description = "Removed")
+    public Mono<ResponseEntity<Void>> deleteOrder(@PathVariable String id) {
+        CommonUtils.validateUUID(id, "id");
+        return orderService.deleteOrder(id).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/{orderId}/products/{productId}")
+    @Operation(summary = "Add a product to the order")
+    @ApiResponse(responseCode = "200", description = "Added")
+    public Mono<ResponseEntity<Void>> addProductToOrder(@PathVariable String orderId, @PathVariable String productId) {
+        CommonUtils.validateUUID(orderId, "orderId");
+        CommonUtils.validateUUID(productId, "productId");
+        return orderService.addProductToOrder(orderId, productId).thenReturn(ResponseEntity.ok().build());
+    }
+
+    @DeleteMapping("/{orderId}/products/{productId}")
+    @Operation(summary = "Delete a product from the order")
+    @ApiResponse(responseCode = "200", description = "Deleted")
+    public Mono<ResponseEntity<Void>> removeProductFromOrder(@PathVariable String orderId, @PathVariable String productId) {
+        CommonUtils.validateUUID(orderId, "orderId");
+        CommonUtils.validateUUID(productId, "productId");
+        return orderService.removeProductFromOrder(orderId, productId).thenReturn(ResponseEntity.ok().build());
+    }
+}
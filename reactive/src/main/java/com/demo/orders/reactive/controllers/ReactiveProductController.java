@@ -0,0 +1,64 @@
+package com.demo.orders.reactive.controllers;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.ProductDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.reactive.services.ReactiveProductsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/products")
+public class ReactiveProductController {
+
+    private final ReactiveProductsService productsService;
+
+    @Autowired
+    public ReactiveProductController(ReactiveProductsService productsService) {
+        this.productsService = productsService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create a new product")
+    @ApiResponse(responseCode = "201", description = "The Product created successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductViewDto.class)))
+    public Mono<ResponseEntity<String>> createProduct(@RequestBody ProductDto product) {
+        return productsService.createProduct(product).map(id -> ResponseEntity.status(HttpStatus.CREATED).body(id));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get product by ID")
+    @ApiResponse(responseCode = "200", description = "Product was found",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductViewDto.class)))
+    public Mono<ResponseEntity<ProductViewDto>> getProductById(@PathVariable String id) {
+        CommonUtils.validateUUID(id, "id");
+        return productsService.getProductById(id).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update a product by ID")
+    @ApiResponse(responseCode = "200", description = "Product updated successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductViewDto.class)))
+    public Mono<ResponseEntity<String>> updateProduct(@PathVariable String id, @RequestBody ProductDto product) {
+        CommonUtils.validateUUID(id, "id");
+        return productsService.updateProduct(id, product).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a product by id")
+    @ApiResponse(responseCode = "204", description = "Product deleted successfully")
+    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable String id) {
+        CommonUtils.validateUUID(id, "id");
+        return productsService.deleteProduct(id).thenReturn(ResponseEntity.noContent().build());
+    }
+}
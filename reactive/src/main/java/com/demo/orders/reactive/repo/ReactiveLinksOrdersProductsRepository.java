@@ -0,0 +1,38 @@
+package com.demo.orders.reactive.repo;
+
+import com.demo.orders.repo.LinkIds;
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface ReactiveLinksOrdersProductsRepository extends ReactiveMongoRepository<LinkOrderProducts, String> {
+
+    Flux<LinkOrderProducts> findByOrderId(String orderId);
+
+    Flux<LinkOrderProducts> findByOrderIdIn(Collection<String> orderIds);
+
+    /**
+     * Covered by the {orderId, productId} index, see {@link LinkIds}.
+     */
+    @Query(value = "{ 'orderId': ?0 }", fields = LinksOrdersProductsRepository.LINK_IDS)
+    Flux<LinkIds> findLinkIdsByOrderId(String orderId);
+
+    @Query(value = "{ 'orderId': { '$in': ?0 } }", fields = LinksOrdersProductsRepository.LINK_IDS)
+    Flux<LinkIds> findLinkIdsByOrderIdIn(Collection<String> orderIds);
+
+    Mono<LinkOrderProducts> findByOrderIdAndProductId(String orderId, String productId);
+
+    /**
+     * A derived delete is a single deleteMany, the count comes from its result.
+     */
+    Mono<Long> deleteByProductId(String productId);
+
+    Mono<Long> deleteByOrderId(String orderId);
+}
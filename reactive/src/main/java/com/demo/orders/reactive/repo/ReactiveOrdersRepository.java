@@ -0,0 +1,18 @@
+package com.demo.orders.reactive.repo;
+
+import com.demo.orders.repo.entities.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveOrdersRepository extends ReactiveMongoRepository<Order, String> {
+
+    Flux<Order> findAllBy(Pageable pageable);
+
+    /**
+     * Takes the stored form of the id, see {@link com.demo.orders.repo.IdStorage#toStored(String)}.
+     */
+    Flux<Order> findByOrderIdGreaterThan(Object orderId, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.demo.orders.reactive.repo;
+
+import com.demo.orders.repo.entities.Product;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+@Repository
+public interface ReactiveProductsRepository extends ReactiveMongoRepository<Product, String> {
+
+    Flux<Product> findByProductIdIn(Collection<String> ids);
+}
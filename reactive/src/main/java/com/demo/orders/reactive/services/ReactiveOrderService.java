@@ -0,0 +1,117 @@
+package com.demo.orders.reactive.services;
+
+import com.demo.orders.dtos.OrderDto;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.exceptions.LinkOrderProductsNotFoundException;
+import com.demo.orders.exceptions.OrderNotFoundException;
+import com.demo.orders.reactive.repo.ReactiveLinksOrdersProductsRepository;
+import com.demo.orders.reactive.repo.ReactiveOrdersRepository;
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.services.ids.IdGenerator;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+@Service
+public class ReactiveOrderService {
+
+    private final ReactiveOrdersRepository ordersRepository;
+    private final ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final ReactiveProductsService productsService;
+    private final ReactiveOrderViewAssembler orderViewAssembler;
+    private final ReactiveMongoOperations mongoOperations;
+    private final IdStorage idStorage;
+    private final IdGenerator idGenerator;
+
+    @Autowired
+    public ReactiveOrderService(ReactiveOrdersRepository ordersRepository,
+                                ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository,
+                                ReactiveProductsService productsService,
+                                ReactiveOrderViewAssembler orderViewAssembler,
+                                ReactiveMongoOperations mongoOperations,
+                                IdStorage idStorage,
+                                IdGenerator idGenerator) {
+        this.ordersRepository = ordersRepository;
+        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
+        this.productsService = productsService;
+        this.orderViewAssembler = orderViewAssembler;
+        this.mongoOperations = mongoOperations;
+        this.idStorage = idStorage;
+        this.idGenerator = idGenerator;
+    }
+
+    public Mono<String> createOrder(OrderDto orderDto) {
+        Order order = mapDtoToEntity(orderDto, idGenerator.newId());
+        return ordersRepository.insert(order).map(Order::getOrderId);
+    }
+
+    public Mono<OrderViewDto> getOrderById(String id) {
+        return orderViewAssembler.assemble(id, getOrderEntityById(id));
+    }
+
+    public Flux<OrderViewDto> getAllOrders() {
+        return orderViewAssembler.assembleAll(ordersRepository.findAll());
+    }
+
+    public Flux<OrderViewDto> getOrdersPage(String after, int limit) {
+        PageRequest page = PageRequest.of(0, limit, Sort.by("orderId"));
+        Flux<Order> orders = after == null
+                ? ordersRepository.findAllBy(page)
+                : ordersRepository.findByOrderIdGreaterThan(idStorage.toStored(after), page);
+        return orders.collectList().flatMapMany(orderViewAssembler::assemble);
+    }
+
+    public Mono<String> updateOrder(String id, OrderDto orderDto) {
+        Update update = new Update()
+                .set("orderName", StringUtils.hasText(orderDto.getOrderName()) ? orderDto.getOrderName() : null)
+                .set("updateDate", System.currentTimeMillis());
+        return getOrderEntityById(id)
+                .flatMap(order -> mongoOperations.updateFirst(Query.query(Criteria.where("orderId").is(id)), update, Order.class))
+                .thenReturn(id);
+    }
+
+    public Mono<Void> deleteOrder(String id) {
+        return getOrderEntityById(id).flatMap(order -> ordersRepository.deleteById(id));
+    }
+
+    public Mono<Void> addProductToOrder(String orderId, String productId) {
+        // an upsert like the blocking service, adding a product that is linked already leaves the order as it is
+        Query link = Query.query(Criteria.where("orderId").is(orderId).and("productId").is(productId));
+        Update update = new Update().setOnInsert("orderId", orderId).setOnInsert("productId", productId);
+        return Mono.when(getOrderEntityById(orderId), productsService.getProductEntityById(productId))
+                .then(Mono.defer(() -> mongoOperations.upsert(link, update, LinkOrderProducts.class)))
+                .then();
+    }
+
+    /**
+     * Like the blocking service, the removed product is deleted as well.
+     */
+    public Mono<Void> removeProductFromOrder(String orderId, String productId) {
+        return Mono.when(getOrderEntityById(orderId), productsService.getProductEntityById(productId))
+                .then(Mono.defer(() -> linksOrdersProductsRepository.findByOrderIdAndProductId(orderId, productId)))
+                .switchIfEmpty(Mono.error(() -> new LinkOrderProductsNotFoundException(String.format("A link for the order with id '%s' was not found", orderId))))
+                .flatMap(linksOrdersProductsRepository::delete)
+                .then(Mono.defer(() -> productsService.deleteProduct(productId)));
+    }
+
+    private Mono<Order> getOrderEntityById(String id) {
+        return ordersRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException("Order with ID " + id + " not found")));
+    }
+
+    private static Order mapDtoToEntity(OrderDto from, String generatedId) {
+        long currTime = System.currentTimeMillis();
+        return new Order(generatedId, from.getOrderName(), currTime, currTime);
+    }
+}
@@ -0,0 +1,96 @@
+package com.demo.orders.reactive.services;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.reactive.repo.ReactiveLinksOrdersProductsRepository;
+import com.demo.orders.repo.LinkIds;
+import com.demo.orders.repo.entities.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Joins orders with their products without blocking. A single order is read at the same time as its
+ * links, a stream of orders is cut into chunks of one links query and one products query each, and
+ * a few chunks are joined at once while their views are still emitted in order.
+ */
+@Component
+public class ReactiveOrderViewAssembler {
+
+    private final ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final ReactiveProductsService productsService;
+    private final int batchSize;
+    private final int prefetchBatches;
+
+    @Autowired
+    public ReactiveOrderViewAssembler(ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository,
+                                      ReactiveProductsService productsService,
+                                      @Value("${ordersReadBatchSize}") int batchSize,
+                                      @Value("${ordersReadPrefetchBatches}") int prefetchBatches) {
+        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
+        this.productsService = productsService;
+        this.batchSize = batchSize;
+        this.prefetchBatches = prefetchBatches;
+    }
+
+    /**
+     * The view of one order, {@code order} is the lookup of the order itself.
+     */
+    public Mono<OrderViewDto> assemble(String orderId, Mono<Order> order) {
+        Mono<Joined> joined = join(linksOrdersProductsRepository.findLinkIdsByOrderId(orderId));
+        // the order lookup and the links lookup go out together, the products follow once the links are in
+        return Mono.zip(order, joined, (found, links) -> links.toView(found));
+    }
+
+    public Flux<OrderViewDto> assembleAll(Flux<Order> orders) {
+        return orders.buffer(batchSize).flatMapSequential(this::assemble, prefetchBatches);
+    }
+
+    public Flux<OrderViewDto> assemble(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> orderIds = orders.stream().map(Order::getOrderId).toList();
+        return join(linksOrdersProductsRepository.findLinkIdsByOrderIdIn(orderIds))
+                .flatMapIterable(links -> orders.stream().map(links::toView).toList());
+    }
+
+    private Mono<Joined> join(Flux<? extends LinkIds> links) {
+        return links.collectMultimap(LinkIds::getOrderId, LinkIds::getProductId)
+                .flatMap(productIdsByOrder -> {
+                    Set<String> productIds = new LinkedHashSet<>();
+                    productIdsByOrder.values().forEach(productIds::addAll);
+                    return productsService.getProductsIn(productIds)
+                            .collectMap(ProductViewDto::getProductId)
+                            .map(products -> new Joined(productIdsByOrder, products));
+                });
+    }
+
+    private record Joined(Map<String, Collection<String>> productIdsByOrder, Map<String, ProductViewDto> products) {
+
+        OrderViewDto toView(Order order) {
+            OrderViewDto view = mapEntityToViewWithEmptyProducts(order);
+            for (String productId : productIdsByOrder.getOrDefault(order.getOrderId(), List.of())) {
+                ProductViewDto product = products.get(productId);
+                if (product != null) {
+                    view.getProducts().add(product);
+                }
+            }
+            return view;
+        }
+    }
+
+    private static OrderViewDto mapEntityToViewWithEmptyProducts(Order from) {
+        return new OrderViewDto(from.getOrderId(), from.getOrderName(), new ArrayList<>(), CommonUtils.mapEpochMillisToTimestamp(from.getCreateDate()), CommonUtils.mapEpochMillisToTimestamp(from.getUpdateDate()));
+    }
+}
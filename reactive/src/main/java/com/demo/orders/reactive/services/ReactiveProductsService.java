@@ -0,0 +1,91 @@
+package com.demo.orders.reactive.services;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.ProductDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.exceptions.ProductNotFoundException;
+import com.demo.orders.reactive.repo.ReactiveLinksOrdersProductsRepository;
+import com.demo.orders.reactive.repo.ReactiveProductsRepository;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.services.ids.IdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Service
+public class ReactiveProductsService {
+
+    private final ReactiveProductsRepository productsRepository;
+    private final ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final ReactiveMongoOperations mongoOperations;
+    private final IdGenerator idGenerator;
+
+    @Autowired
+    public ReactiveProductsService(ReactiveProductsRepository productsRepository,
+                                   ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository,
+                                   ReactiveMongoOperations mongoOperations,
+                                   IdGenerator idGenerator) {
+        this.productsRepository = productsRepository;
+        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
+        this.mongoOperations = mongoOperations;
+        this.idGenerator = idGenerator;
+    }
+
+    public Mono<String> createProduct(ProductDto productDto) {
+        Product product = mapDtoToEntity(productDto, idGenerator.newId());
+        return productsRepository.insert(product).map(Product::getProductId);
+    }
+
+    public Mono<ProductViewDto> getProductById(String id) {
+        return getProductEntityById(id).map(ReactiveProductsService::mapEntityToViewDto);
+    }
+
+    Mono<Product> getProductEntityById(String id) {
+        return productsRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product with ID " + id + " not found")));
+    }
+
+    public Flux<ProductViewDto> getProductsIn(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return productsRepository.findByProductIdIn(ids).map(ReactiveProductsService::mapEntityToViewDto);
+    }
+
+    public Mono<String> updateProduct(String id, ProductDto productDto) {
+        Update update = new Update();
+        if (productDto.getProductName() != null) {
+            update.set("productName", productDto.getProductName().isEmpty() ? null : productDto.getProductName());
+        }
+        if (productDto.getProductPrice() != null) {
+            update.set("productPrice", productDto.getProductPrice());
+        }
+        update.set("updateDate", System.currentTimeMillis());
+        return getProductEntityById(id)
+                .flatMap(product -> mongoOperations.updateFirst(Query.query(Criteria.where("productId").is(id)), update, Product.class))
+                .thenReturn(id);
+    }
+
+    /**
+     * Removes the product and its links, both deletes are sent at once.
+     */
+    public Mono<Void> deleteProduct(String id) {
+        return Mono.when(productsRepository.deleteById(id), linksOrdersProductsRepository.deleteByProductId(id));
+    }
+
+    private static Product mapDtoToEntity(ProductDto dto, String id) {
+        long currTime = System.currentTimeMillis();
+        return new Product(id, dto.getProductName(), dto.getProductPrice(), currTime, currTime);
+    }
+
+    private static ProductViewDto mapEntityToViewDto(Product from) {
+        return new ProductViewDto(from.getProductId(), from.getProductName(), from.getProductPrice(), CommonUtils.mapEpochMillisToTimestamp(from.getCreateDate()), CommonUtils.mapEpochMillisToTimestamp(from.getUpdateDate()));
+    }
+}
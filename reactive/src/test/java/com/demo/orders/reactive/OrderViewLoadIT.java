@@ -0,0 +1,197 @@
+package com.demo.orders.reactive;
+
+import com.demo.orders.reactive.repo.ReactiveLinksOrdersProductsRepository;
+import com.demo.orders.reactive.repo.ReactiveOrdersRepository;
+import com.demo.orders.reactive.repo.ReactiveProductsRepository;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads order views over HTTP with a base number of concurrent connections and then with ten times
+ * as many, from this application and from the blocking one started next to it on the same database.
+ * Fails when the p99 of the reactive stack grows by more than {@code load.maxP99Growth} (3.0 by
+ * default) at ten times the connections, or grows more than the p99 of the blocking stack does.
+ * Runs with {@code mvn -P load-test verify}, which also provides the blocking jar.
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OrderViewLoadIT {
+    private static final int BASE_CONNECTIONS = 16;
+    private static final int REQUESTS_PER_CONNECTION = 50;
+    private static final int ORDERS = 200;
+    private static final int PRODUCTS_PER_ORDER = 5;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(1);
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ReactiveOrdersRepository ordersRepository;
+
+    @Autowired
+    ReactiveProductsRepository productsRepository;
+
+    @Autowired
+    ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository;
+
+    @Test
+    void testP99HoldsAtTenTimesTheConnections() throws Exception {
+        double maxGrowth = Double.parseDouble(System.getProperty("load.maxP99Growth", "3.0"));
+        List<String> orderIds = seed();
+
+        Latencies reactive = measure("http://localhost:" + port, orderIds);
+        Latencies blocking;
+        int blockingPort = freePort();
+        Process blockingApplication = startBlocking(blockingPort);
+        try {
+            String baseUrl = "http://localhost:" + blockingPort;
+            awaitStartup(baseUrl, blockingApplication);
+            blocking = measure(baseUrl, orderIds);
+        } finally {
+            blockingApplication.destroy();
+            blockingApplication.waitFor(30, TimeUnit.SECONDS);
+        }
+        log.info("reactive: p99 {} ms at {} connections, {} ms at {}", reactive.base(), BASE_CONNECTIONS, reactive.tenfold(), BASE_CONNECTIONS * 10);
+        log.info("blocking: p99 {} ms at {} connections, {} ms at {}", blocking.base(), BASE_CONNECTIONS, blocking.tenfold(), BASE_CONNECTIONS * 10);
+
+        Assertions.assertTrue(reactive.growth() <= maxGrowth,
+                String.format("Reactive p99 grew %.1fx from %d to %d connections", reactive.growth(), BASE_CONNECTIONS, BASE_CONNECTIONS * 10));
+        Assertions.assertTrue(reactive.growth() <= blocking.growth(),
+                String.format("Reactive p99 grew %.1fx, blocking p99 %.1fx", reactive.growth(), blocking.growth()));
+    }
+
+    private static Latencies measure(String baseUrl, List<String> orderIds) {
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                .maxConnections(BASE_CONNECTIONS * 10)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        try {
+            // warms up the connections, the JIT and the Mongo pool
+            p99Millis(client, orderIds, BASE_CONNECTIONS);
+            return new Latencies(p99Millis(client, orderIds, BASE_CONNECTIONS), p99Millis(client, orderIds, BASE_CONNECTIONS * 10));
+        } finally {
+            connections.dispose();
+        }
+    }
+
+    private static Process startBlocking(int port) throws Exception {
+        String jar = System.getProperty("load.blockingJar");
+        Assertions.assertNotNull(jar, "load.blockingJar is not set, run with -P load-test");
+        File log = Path.of(jar).resolveSibling("orders-blocking.log").toFile();
+        return new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", jar,
+                "--server.port=" + port,
+                "--spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl())
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+
+    private static void awaitStartup(String baseUrl, Process process) throws InterruptedException {
+        WebClient client = WebClient.create(baseUrl);
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            Assertions.assertTrue(process.isAlive(), "The blocking application exited, see orders-blocking.log");
+            boolean up = Boolean.TRUE.equals(client.get().uri("/orders?limit=1").exchangeToMono(response -> Mono.just(response.statusCode().is2xxSuccessful()))
+                    .onErrorReturn(false)
+                    .block(Duration.ofSeconds(5)));
+            if (up) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        Assertions.fail("The blocking application did not start within " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private List<String> seed() {
+        long time = System.currentTimeMillis();
+        List<Order> orders = new ArrayList<>(ORDERS);
+        List<Product> products = new ArrayList<>(ORDERS * PRODUCTS_PER_ORDER);
+        List<LinkOrderProducts> links = new ArrayList<>(ORDERS * PRODUCTS_PER_ORDER);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), "Order " + i, time, time);
+            orders.add(order);
+            for (int j = 0; j < PRODUCTS_PER_ORDER; j++) {
+                Product product = new Product(UUID.randomUUID().toString(), "Product " + j, 10.0, time, time);
+                products.add(product);
+                LinkOrderProducts link = new LinkOrderProducts();
+                link.setOrderId(order.getOrderId());
+                link.setProductId(product.getProductId());
+                links.add(link);
+            }
+        }
+        Mono.when(ordersRepository.insert(orders), productsRepository.insert(products), linksOrdersProductsRepository.insert(links))
+                .block(Duration.ofMinutes(1));
+        return orders.stream().map(Order::getOrderId).toList();
+    }
+
+    private static long p99Millis(WebClient client, List<String> orderIds, int connections) {
+        int requests = connections * REQUESTS_PER_CONNECTION;
+        long[] latencies = Flux.range(0, requests)
+                .flatMap(i -> timed(client.get().uri("/orders/{id}", orderIds.get(i % orderIds.size())).retrieve().toBodilessEntity()), connections)
+                .collectList()
+                .block(Duration.ofMinutes(2))
+                .stream().mapToLong(Long::longValue).sorted().toArray();
+        return TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(requests * 0.99) - 1]);
+    }
+
+    private static Mono<Long> timed(Mono<?> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.then(Mono.fromCallable(() -> System.nanoTime() - start));
+        });
+    }
+
+    private record Latencies(long base, long tenfold) {
+
+        // a base below a millisecond would make any growth look huge
+        double growth() {
+            return tenfold / (double) Math.max(base, 1);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.demo.orders.reactive.controllers;
+
+import com.demo.orders.dtos.OrderDto;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.exceptions.OrderNotFoundException;
+import com.demo.orders.reactive.services.ReactiveOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderControllerTest {
+
+    @Mock
+    private ReactiveOrderService orderService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(new ReactiveOrderController(orderService))
+                .controllerAdvice(new ReactiveExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void createOrderTest() {
+        String orderId = UUID.randomUUID().toString();
+        given(orderService.createOrder(any(OrderDto.class))).willReturn(Mono.just(orderId));
+
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new OrderDto("Order"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).isEqualTo(orderId);
+    }
+
+    @Test
+    void getOrderByIdTest() {
+        String id = UUID.randomUUID().toString();
+        OrderViewDto order = new OrderViewDto(id, "Order", new ArrayList<>(), null, null);
+        given(orderService.getOrderById(eq(id))).willReturn(Mono.just(order));
+
+        webTestClient.get().uri("/orders/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(OrderViewDto.class).isEqualTo(order);
+    }
+
+    @Test
+    void getOrderById_NotFound() {
+        String id = UUID.randomUUID().toString();
+        given(orderService.getOrderById(eq(id))).willReturn(Mono.error(new OrderNotFoundException("Order with ID " + id + " not found")));
+
+        webTestClient.get().uri("/orders/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getOrderById_InvalidId() {
+        webTestClient.get().uri("/orders/{id}", "not-a-uuid")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getOrdersPageTest() {
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        given(orderService.getOrdersPage(eq(null), eq(2))).willReturn(Flux.just(
+                new OrderViewDto(first, "First", new ArrayList<>(), null, null),
+                new OrderViewDto(second, "Second", new ArrayList<>(), null, null)));
+
+        webTestClient.get().uri("/orders?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ReactiveOrderController.NEXT_CURSOR_HEADER, second)
+                .expectBodyList(OrderViewDto.class).hasSize(2);
+    }
+
+    @Test
+    void streamAllOrdersTest() {
+        List<OrderViewDto> orders = List.of(new OrderViewDto(UUID.randomUUID().toString(), "First", new ArrayList<>(), null, null),
+                new OrderViewDto(UUID.randomUUID().toString(), "Second", new ArrayList<>(), null, null));
+        given(orderService.getAllOrders()).willReturn(Flux.fromIterable(orders));
+
+        webTestClient.get().uri("/orders/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(OrderViewDto.class).isEqualTo(orders);
+    }
+
+    @Test
+    void deleteOrderTest() {
+        String id = UUID.randomUUID().toString();
+        given(orderService.deleteOrder(eq(id))).willReturn(Mono.empty());
+
+        webTestClient.delete().uri("/orders/{id}", id)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void addProductToOrderTest() {
+        String orderId = UUID.randomUUID().toString();
+        String productId = UUID.randomUUID().toString();
+        given(orderService.addProductToOrder(eq(orderId), eq(productId))).willReturn(Mono.empty());
+
+        webTestClient.post().uri("/orders/{orderId}/products/{productId}", orderId, productId)
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,85 @@
+package com.demo.orders.reactive.services;
+
+import com.demo.orders.reactive.repo.ReactiveLinksOrdersProductsRepository;
+import com.demo.orders.reactive.repo.ReactiveOrdersRepository;
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.services.ids.IdGenerator;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderServiceTest {
+    private static final String ORDER_ID = "123e4567-e89b-12d3-a456-426614174000";
+    private static final String PRODUCT_ID = "123e4567-e89b-12d3-a456-426614174001";
+
+    @Mock
+    private ReactiveOrdersRepository ordersRepository;
+
+    @Mock
+    private ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository;
+
+    @Mock
+    private ReactiveProductsService productsService;
+
+    @Mock
+    private ReactiveOrderViewAssembler orderViewAssembler;
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Mock
+    private IdGenerator idGenerator;
+
+    private ReactiveOrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new ReactiveOrderService(ordersRepository, linksOrdersProductsRepository, productsService, orderViewAssembler,
+                mongoOperations, new IdStorage(false), idGenerator);
+    }
+
+    @Test
+    void addProductToOrder_TwiceUpsertsTheSameLink() {
+        given(ordersRepository.findById(ORDER_ID)).willReturn(Mono.just(new Order(ORDER_ID, "Order", 1L, 1L)));
+        given(productsService.getProductEntityById(PRODUCT_ID)).willReturn(Mono.just(new Product(PRODUCT_ID, "Product", 10.0, 1L, 1L)));
+        // the second add matches the link the first one inserted
+        given(mongoOperations.upsert(any(Query.class), any(Update.class), eq(LinkOrderProducts.class)))
+                .willReturn(Mono.just(UpdateResult.acknowledged(0, 0L, new BsonString("link"))), Mono.just(UpdateResult.acknowledged(1, 0L, null)));
+
+        StepVerifier.create(orderService.addProductToOrder(ORDER_ID, PRODUCT_ID)).verifyComplete();
+        StepVerifier.create(orderService.addProductToOrder(ORDER_ID, PRODUCT_ID)).verifyComplete();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations, times(2)).upsert(queries.capture(), updates.capture(), eq(LinkOrderProducts.class));
+        Document link = new Document("orderId", ORDER_ID).append("productId", PRODUCT_ID);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(link, queries.getAllValues().get(i).getQueryObject());
+            assertEquals(new Document("$setOnInsert", link), updates.getAllValues().get(i).getUpdateObject());
+        }
+        verifyNoInteractions(linksOrdersProductsRepository);
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.orders.reactive.services;
+
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.exceptions.OrderNotFoundException;
+import com.demo.orders.reactive.repo.ReactiveLinksOrdersProductsRepository;
+import com.demo.orders.repo.LinkIds;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderViewAssemblerTest {
+
+    @Mock
+    private ReactiveLinksOrdersProductsRepository linksOrdersProductsRepository;
+
+    @Mock
+    private ReactiveProductsService productsService;
+
+    private ReactiveOrderViewAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        assembler = new ReactiveOrderViewAssembler(linksOrdersProductsRepository, productsService, 2, 2);
+    }
+
+    @Test
+    void assembleOne_JoinsProductsInLinkOrder() {
+        given(linksOrdersProductsRepository.findLinkIdsByOrderId(eq("o1"))).willReturn(Flux.just(link("o1", "p2"), link("o1", "p1")));
+        given(productsService.getProductsIn(eq(Set.of("p1", "p2")))).willReturn(Flux.just(product("p1"), product("p2")));
+
+        StepVerifier.create(assembler.assemble("o1", Mono.just(order("o1"))))
+                .assertNext(view -> assertEquals(List.of("p2", "p1"), productIds(view)))
+                .verifyComplete();
+    }
+
+    @Test
+    void assembleOne_FailsWhenOrderIsMissing() {
+        given(linksOrdersProductsRepository.findLinkIdsByOrderId(eq("o1"))).willReturn(Flux.empty());
+
+        StepVerifier.create(assembler.assemble("o1", Mono.error(new OrderNotFoundException("Order with ID o1 not found"))))
+                .verifyError(OrderNotFoundException.class);
+    }
+
+    @Test
+    void assembleAll_KeepsOrderAcrossChunks() {
+        List<Order> orders = IntStream.range(0, 5).mapToObj(i -> order("o" + i)).toList();
+        given(linksOrdersProductsRepository.findLinkIdsByOrderIdIn(anyCollection())).willAnswer(invocation -> {
+            Collection<String> orderIds = invocation.getArgument(0);
+            return Flux.fromIterable(orderIds).map(orderId -> link(orderId, "p" + orderId));
+        });
+        given(productsService.getProductsIn(anyCollection())).willAnswer(invocation -> {
+            Collection<String> productIds = invocation.getArgument(0);
+            return Flux.fromIterable(productIds).map(ReactiveOrderViewAssemblerTest::product);
+        });
+
+        List<OrderViewDto> views = assembler.assembleAll(Flux.fromIterable(orders)).collectList().block();
+
+        assertEquals(orders.stream().map(Order::getOrderId).toList(), views.stream().map(OrderViewDto::getOrderId).toList());
+        views.forEach(view -> assertEquals(List.of("p" + view.getOrderId()), productIds(view)));
+        // one links query per chunk of two
+        verify(linksOrdersProductsRepository, times(3)).findLinkIdsByOrderIdIn(any());
+    }
+
+    private static List<String> productIds(OrderViewDto view) {
+        return view.getProducts().stream().map(ProductViewDto::getProductId).toList();
+    }
+
+    private static Order order(String id) {
+        return new Order(id, "Order " + id, 0L, 0L);
+    }
+
+    private static ProductViewDto product(String id) {
+        return new ProductViewDto(id, "Product " + id, 1.0, null, null);
+    }
+
+    private static LinkIds link(String orderId, String productId) {
+        LinkOrderProducts link = new LinkOrderProducts();
+        link.setOrderId(orderId);
+        link.setProductId(productId);
+        return link;
+    }
+}
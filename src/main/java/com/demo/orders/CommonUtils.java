@@ -2,31 +2,86 @@ package com.demo.orders;
 
 import com.demo.orders.exceptions.ValidationException;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.UUID;
 
 public class CommonUtils {
+    private static final int UUID_LENGTH = 36;
+    // hex digit values by char, -1 for everything else
+    private static final byte[] HEX_VALUES = new byte[256];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[Character.forDigit(i, 16)] = (byte) i;
+            HEX_VALUES[Character.toUpperCase(Character.forDigit(i, 16))] = (byte) i;
+        }
+    }
 
     private CommonUtils() {
     }
 
-    static DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // the zone is taken once at startup, like the rest of the JVM's default-zone caches
+    private static final TimestampFormatter timestampFormatter = new TimestampFormatter(ZoneId.systemDefault());
 
+    /**
+     * Formats as {@code yyyy-MM-dd HH:mm:ss} in the system zone.
+     */
     public static String mapEpochMillisToTimestamp(long epochMillis) {
-        Instant instant = Instant.ofEpochMilli(epochMillis);
-        ZoneId zoneId = ZoneId.systemDefault();
-        LocalDateTime localDateTime = LocalDateTime.ofInstant(instant, zoneId);
-        return localDateTime.format(formatter);
+        return timestampFormatter.format(epochMillis);
     }
 
     public static void validateUUID(String id, String propertyName) {
-        try {
-            UUID.fromString(id);
-        } catch (Exception ex) {
-            throw new ValidationException(String.format("Invalid identifier format for property '%s'. Value: '%s'", propertyName, id));
+        if (!isUUID(id)) {
+            throw new ValidationException("Invalid identifier format for property '" + propertyName + "'. Value: '" + id + "'");
+        }
+    }
+
+    public static void validateSize(Collection<?> items, int maxSize, String propertyName) {
+        if (items == null || items.isEmpty() || items.size() > maxSize) {
+            throw new ValidationException(String.format("Property '%s' must hold between 1 and %d items. Size: %d", propertyName, maxSize, items == null ? 0 : items.size()));
+        }
+    }
+
+    /**
+     * Parses a validated id into its 16 byte form, for keys that are compared or stored often.
+     */
+    public static UUID toUUID(String id, String propertyName) {
+        validateUUID(id, propertyName);
+        long mostSigBits = (long) hex4(id, 0) << 48 | (long) hex4(id, 4) << 32 | (long) hex4(id, 9) << 16 | hex4(id, 14);
+        long leastSigBits = (long) hex4(id, 19) << 48 | (long) hex4(id, 24) << 32 | (long) hex4(id, 28) << 16 | hex4(id, 32);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Accepts the canonical 8-4-4-4-12 form only, in either case. Unlike UUID.fromString it does not
+     * take shortened groups such as {@code 1-2-3-4-5}, which ids generated here never have.
+     */
+    public static boolean isUUID(String id) {
+        if (id == null || id.length() != UUID_LENGTH) {
+            return false;
+        }
+        int dashes = (id.charAt(8) ^ '-') | (id.charAt(13) ^ '-') | (id.charAt(18) ^ '-') | (id.charAt(23) ^ '-');
+        // an invalid digit anywhere leaves the sign bit set, so the groups are checked all at once
+        int digits = hex4(id, 0) | hex4(id, 4) | hex4(id, 9) | hex4(id, 14)
+                | hex4(id, 19) | hex4(id, 24) | hex4(id, 28) | hex4(id, 32);
+        return (dashes | digits >>> 31) == 0;
+    }
+
+    /**
+     * The value of the four hex digits at {@code from}, or a negative number when any of them is not a
+     * hex digit.
+     */
+    private static int hex4(String id, int from) {
+        char c1 = id.charAt(from);
+        char c2 = id.charAt(from + 1);
+        char c3 = id.charAt(from + 2);
+        char c4 = id.charAt(from + 3);
+        if ((c1 | c2 | c3 | c4) > 0xff) {
+            return -1;
         }
+        return HEX_VALUES[c1] << 12 | HEX_VALUES[c2] << 8 | HEX_VALUES[c3] << 4 | HEX_VALUES[c4];
     }
 }
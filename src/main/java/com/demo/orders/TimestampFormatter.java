@@ -0,0 +1,88 @@
+package com.demo.orders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Formats epoch millis as {@code yyyy-MM-dd HH:mm:ss} in a fixed zone, with the same output as a
+ * {@link DateTimeFormatter} over {@link java.time.LocalDateTime#ofInstant}. The date and offset of a
+ * stretch of local day, a day cut at offset transitions, are computed once and cached by day, so
+ * a call only works out the time of day and writes its digits into a per-thread buffer.
+ */
+final class TimestampFormatter {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int CACHED_DAYS = 64;
+    private static final int TIME_LENGTH = 8;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd ");
+
+    private final ZoneRules rules;
+    // slots hold immutable stretches, a racy overwrite only costs a recomputation
+    private final Stretch[] stretches = new Stretch[CACHED_DAYS];
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[32]);
+
+    TimestampFormatter(ZoneId zone) {
+        this.rules = zone.getRules();
+    }
+
+    String format(long epochMillis) {
+        int slot = (int) (Math.floorDiv(epochMillis, MILLIS_PER_DAY) & (CACHED_DAYS - 1));
+        Stretch stretch = stretches[slot];
+        if (stretch == null || epochMillis < stretch.from() || epochMillis >= stretch.to()) {
+            stretch = stretchOf(epochMillis);
+            stretches[slot] = stretch;
+        }
+
+        byte[] buffer = buffers.get();
+        byte[] date = stretch.date();
+        System.arraycopy(date, 0, buffer, 0, date.length);
+        int secondOfDay = (int) ((epochMillis - stretch.midnight()) / 1000);
+        int at = date.length;
+        at = writeTwoDigits(buffer, at, secondOfDay / 3600);
+        buffer[at++] = ':';
+        at = writeTwoDigits(buffer, at, secondOfDay / 60 % 60);
+        buffer[at++] = ':';
+        writeTwoDigits(buffer, at, secondOfDay % 60);
+        return new String(buffer, 0, date.length + TIME_LENGTH, StandardCharsets.ISO_8859_1);
+    }
+
+    private Stretch stretchOf(long epochMillis) {
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        ZoneOffset offset = rules.getOffset(instant);
+        long offsetMillis = offset.getTotalSeconds() * 1000L;
+        long localDay = Math.floorDiv(epochMillis + offsetMillis, MILLIS_PER_DAY);
+        long midnight = localDay * MILLIS_PER_DAY - offsetMillis;
+
+        long from = midnight;
+        long to = midnight + MILLIS_PER_DAY;
+        // transitions sit on whole seconds, one milli later makes a transition at this very instant count as previous
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        if (previous != null) {
+            from = Math.max(from, previous.toEpochSecond() * 1000);
+        }
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        if (next != null) {
+            to = Math.min(to, next.toEpochSecond() * 1000);
+        }
+        byte[] date = DATE.format(LocalDate.ofEpochDay(localDay)).getBytes(StandardCharsets.ISO_8859_1);
+        return new Stretch(from, to, midnight, date);
+    }
+
+    private static int writeTwoDigits(byte[] buffer, int at, int value) {
+        buffer[at] = (byte) ('0' + value / 10);
+        buffer[at + 1] = (byte) ('0' + value % 10);
+        return at + 2;
+    }
+
+    /**
+     * Instants in {@code [from, to)} share the local date and the offset, {@code midnight} is the
+     * instant local midnight would have at that offset.
+     */
+    private record Stretch(long from, long to, long midnight, byte[] date) {
+    }
+}
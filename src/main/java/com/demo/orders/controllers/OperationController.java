@@ -0,0 +1,59 @@
+package com.demo.orders.controllers;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.BulkResultDto;
+import com.demo.orders.dtos.OperationStatusDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.demo.orders.exceptions.ValidationException;
+import com.demo.orders.services.OperationRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/operations")
+public class OperationController {
+
+    static final String OPERATION_LOCATION_HEADER = "Operation-Location";
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    private final OperationRegistry operationRegistry;
+
+    @Autowired
+    public OperationController(OperationRegistry operationRegistry) {
+        this.operationRegistry = operationRegistry;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get the status of a submitted write, optionally waiting up to 'wait' milliseconds for it to finish")
+    @ApiResponse(responseCode = "200", description = "Operation was found",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = OperationStatusDto.class)))
+    public CompletableFuture<ResponseEntity<OperationStatusDto>> getOperation(@PathVariable String id,
+                                                                              @RequestParam(defaultValue = "0") long wait) {
+        CommonUtils.validateUUID(id, "id");
+        if (wait < 0 || wait > MAX_WAIT_MILLIS) {
+            throw new ValidationException(String.format("Property 'wait' must be between 0 and %d. Value: '%d'", MAX_WAIT_MILLIS, wait));
+        }
+        return operationRegistry.awaitStatus(id, Duration.ofMillis(wait)).thenApply(ResponseEntity::ok);
+    }
+
+    static ResponseEntity.BodyBuilder submitted(HttpStatus status, SubmittedOperationDto operation) {
+        return ResponseEntity.status(status).header(OPERATION_LOCATION_HEADER, "/operations/" + operation.getOperationId());
+    }
+
+    static ResponseEntity<BulkResultDto> submitted(BulkResultDto result) {
+        if (result.getOperationId() == null) {
+            return ResponseEntity.ok(result);
+        }
+        return ResponseEntity.ok().header(OPERATION_LOCATION_HEADER, "/operations/" + result.getOperationId()).body(result);
+    }
+}
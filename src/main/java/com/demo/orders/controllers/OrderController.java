@@ -1,16 +1,26 @@
 package com.demo.orders.controllers;
 
 import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.BulkResultDto;
+import com.demo.orders.dtos.IdsDto;
 import com.demo.orders.dtos.OrderDto;
 import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.demo.orders.exceptions.ValidationException;
 import com.demo.orders.services.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.List;
 
@@ -18,10 +28,19 @@ import java.util.List;
 @RequestMapping("/orders")
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-After";
+    static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_LIMIT = 1000;
+    // version 7 ids hold 48 bits of millis
+    private static final long MAX_CREATED_FROM = (1L << 48) - 1;
+    static final int MAX_BULK_SIZE = 1000;
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -30,8 +49,28 @@ public class OrderController {
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = OrderDto.class)))
     public ResponseEntity<String> createOrder(@RequestBody OrderDto order) {
-        String orderId = orderService.createOrder(order);
-        return new ResponseEntity<>(orderId, HttpStatus.CREATED);
+        SubmittedOperationDto submitted = orderService.createOrder(order);
+        return OperationController.submitted(HttpStatus.CREATED, submitted).body(submitted.getId());
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Create many orders with one write")
+    @ApiResponse(responseCode = "200", description = "Submitted, with the generated id of every order",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkResultDto.class)))
+    public ResponseEntity<BulkResultDto> createOrders(@RequestBody List<OrderDto> orders) {
+        CommonUtils.validateSize(orders, MAX_BULK_SIZE, "orders");
+        return OperationController.submitted(orderService.createOrders(orders));
+    }
+
+    @PostMapping("/bulk-delete")
+    @Operation(summary = "Remove many orders by id with one write")
+    @ApiResponse(responseCode = "200", description = "Submitted, with the outcome of every id",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkResultDto.class)))
+    public ResponseEntity<BulkResultDto> deleteOrders(@RequestBody IdsDto ids) {
+        CommonUtils.validateSize(ids.getIds(), MAX_BULK_SIZE, "ids");
+        return OperationController.submitted(orderService.deleteOrders(ids.getIds()));
     }
 
     @GetMapping("/{id}")
@@ -46,13 +85,56 @@ public class OrderController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all orders")
+    @Operation(summary = "Get all orders, or a page of orders sorted by id when 'after', 'createdFrom' or 'limit' is given",
+            description = "'createdFrom' starts the pages at a creation time in epoch millis, it needs idGenerator=TIME_ORDERED")
     @ApiResponse(responseCode = "200", description = "Successfully",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = OrderViewDto.class)))
-    public ResponseEntity<List<OrderViewDto>> getAllOrders() {
-        List<OrderViewDto> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderViewDto>> getAllOrders(@RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Long createdFrom,
+                                                           @RequestParam(required = false) Integer limit) {
+        if (after == null && createdFrom == null && limit == null) {
+            List<OrderViewDto> orders = orderService.getAllOrders();
+            return ResponseEntity.ok(orders);
+        }
+        if (after != null) {
+            CommonUtils.validateUUID(after, "after");
+        }
+        if (after != null && createdFrom != null) {
+            throw new ValidationException("Give either 'after' or 'createdFrom'");
+        }
+        if (createdFrom != null && (createdFrom < 0 || createdFrom > MAX_CREATED_FROM)) {
+            throw new ValidationException(String.format("Property 'createdFrom' must be between 0 and %d. Value: '%d'", MAX_CREATED_FROM, createdFrom));
+        }
+        int pageLimit = limit == null ? MAX_PAGE_LIMIT : limit;
+        if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
+            throw new ValidationException(String.format("Property 'limit' must be between 1 and %d. Value: '%d'", MAX_PAGE_LIMIT, pageLimit));
+        }
+        List<OrderViewDto> orders = createdFrom == null
+                ? orderService.getOrdersPage(after, pageLimit)
+                : orderService.getOrdersPageCreatedFrom(createdFrom, pageLimit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() == pageLimit) {
+            response.header(NEXT_CURSOR_HEADER, orders.get(orders.size() - 1).getOrderId());
+        }
+        return response.body(orders);
+    }
+
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @Operation(summary = "Stream all orders as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Successfully",
+            content = @Content(mediaType = NDJSON,
+                    schema = @Schema(implementation = OrderViewDto.class)))
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        StreamingResponseBody body = out -> orderService.streamAllOrders(order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @PutMapping("/{id}")
@@ -62,8 +144,8 @@ public class OrderController {
                     schema = @Schema(implementation = OrderViewDto.class)))
     public ResponseEntity<String> updateOrder(@PathVariable String id, @RequestBody OrderDto order) {
         CommonUtils.validateUUID(id, "id");
-        String orderId = orderService.updateOrder(id, order);
-        return ResponseEntity.ok(orderId);
+        SubmittedOperationDto submitted = orderService.updateOrder(id, order);
+        return OperationController.submitted(HttpStatus.OK, submitted).body(submitted.getId());
     }
 
     @DeleteMapping("/{id}")
@@ -71,8 +153,8 @@ public class OrderController {
     @ApiResponse(responseCode = "204", description = "Submitted")
     public ResponseEntity<Void> deleteOrder(@PathVariable String id) {
         CommonUtils.validateUUID(id, "id");
-        orderService.deleteOrder(id);
-        return ResponseEntity.noContent().build();
+        SubmittedOperationDto submitted = orderService.deleteOrder(id);
+        return OperationController.submitted(HttpStatus.NO_CONTENT, submitted).build();
     }
 
     @PostMapping("/{orderId}/products/{productId}")
@@ -83,8 +165,8 @@ public class OrderController {
     public ResponseEntity<Void> addProductToOrder(@PathVariable String orderId, @PathVariable String productId) {
         CommonUtils.validateUUID(orderId, "orderId");
         CommonUtils.validateUUID(productId, "productId");
-        orderService.addProductToOrder(orderId, productId);
-        return ResponseEntity.ok().build();
+        SubmittedOperationDto submitted = orderService.addProductToOrder(orderId, productId);
+        return OperationController.submitted(HttpStatus.OK, submitted).build();
     }
 
     @DeleteMapping("/{orderId}/products/{productId}")
@@ -95,7 +177,29 @@ public class OrderController {
     public ResponseEntity<Void> removeProductFromOrder(@PathVariable String orderId, @PathVariable String productId) {
         CommonUtils.validateUUID(orderId, "orderId");
         CommonUtils.validateUUID(productId, "productId");
-        orderService.removeProductFromOrder(orderId, productId);
-        return ResponseEntity.ok().build();
+        SubmittedOperationDto submitted = orderService.removeProductFromOrder(orderId, productId);
+        return OperationController.submitted(HttpStatus.OK, submitted).build();
+    }
+
+    @PostMapping("/{orderId}/products/bulk-add")
+    @Operation(summary = "Add many products to the order with one write")
+    @ApiResponse(responseCode = "200", description = "Submitted, with the outcome of every product id",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkResultDto.class)))
+    public ResponseEntity<BulkResultDto> addProductsToOrder(@PathVariable String orderId, @RequestBody IdsDto productIds) {
+        CommonUtils.validateUUID(orderId, "orderId");
+        CommonUtils.validateSize(productIds.getIds(), MAX_BULK_SIZE, "ids");
+        return OperationController.submitted(orderService.addProductsToOrder(orderId, productIds.getIds()));
+    }
+
+    @PostMapping("/{orderId}/products/bulk-remove")
+    @Operation(summary = "Delete many products from the order with one write")
+    @ApiResponse(responseCode = "200", description = "Submitted, with the outcome of every product id",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkResultDto.class)))
+    public ResponseEntity<BulkResultDto> removeProductsFromOrder(@PathVariable String orderId, @RequestBody IdsDto productIds) {
+        CommonUtils.validateUUID(orderId, "orderId");
+        CommonUtils.validateSize(productIds.getIds(), MAX_BULK_SIZE, "ids");
+        return OperationController.submitted(orderService.removeProductsFromOrder(orderId, productIds.getIds()));
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package com.demo.orders.controllers;
 
 import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.BulkResultDto;
+import com.demo.orders.dtos.IdsDto;
 import com.demo.orders.dtos.ProductDto;
 import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
 import com.demo.orders.services.ProductsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,6 +16,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/products")
 public class ProductController {
@@ -30,8 +35,28 @@ public class ProductController {
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = ProductViewDto.class)))
     public ResponseEntity<String> createProduct(@RequestBody ProductDto product) {
-        String productId = productsService.createProduct(product);
-        return new ResponseEntity<>(productId, HttpStatus.CREATED);
+        SubmittedOperationDto submitted = productsService.createProduct(product);
+        return OperationController.submitted(HttpStatus.CREATED, submitted).body(submitted.getId());
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Create many products with one write")
+    @ApiResponse(responseCode = "200", description = "Submitted, with the generated id of every product",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkResultDto.class)))
+    public ResponseEntity<BulkResultDto> createProducts(@RequestBody List<ProductDto> products) {
+        CommonUtils.validateSize(products, OrderController.MAX_BULK_SIZE, "products");
+        return OperationController.submitted(productsService.createProducts(products));
+    }
+
+    @PostMapping("/bulk-delete")
+    @Operation(summary = "Remove many products by id with one write")
+    @ApiResponse(responseCode = "200", description = "Submitted, with the outcome of every id",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkResultDto.class)))
+    public ResponseEntity<BulkResultDto> deleteProducts(@RequestBody IdsDto ids) {
+        CommonUtils.validateSize(ids.getIds(), OrderController.MAX_BULK_SIZE, "ids");
+        return OperationController.submitted(productsService.deleteProducts(ids.getIds()));
     }
 
     @GetMapping("/{id}")
@@ -52,8 +77,8 @@ public class ProductController {
                     schema = @Schema(implementation = ProductViewDto.class)))
     public ResponseEntity<String> updateProduct(@PathVariable String id, @RequestBody ProductDto product) {
         CommonUtils.validateUUID(id, "id");
-        String productId = productsService.updateProduct(id, product);
-        return ResponseEntity.ok(productId);
+        SubmittedOperationDto submitted = productsService.updateProduct(id, product);
+        return OperationController.submitted(HttpStatus.OK, submitted).body(submitted.getId());
     }
 
     @DeleteMapping("/{id}")
@@ -61,7 +86,7 @@ public class ProductController {
     @ApiResponse(responseCode = "204", description = "Product deleted successfully")
     public ResponseEntity<Void> deleteProduct(@PathVariable String id) {
         CommonUtils.validateUUID(id, "id");
-        productsService.deleteProduct(id);
-        return ResponseEntity.noContent().build();
+        SubmittedOperationDto submitted = productsService.deleteProduct(id);
+        return OperationController.submitted(HttpStatus.NO_CONTENT, submitted).build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.demo.orders.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkItemResultDto {
+    private String id;
+    private BulkItemStatus status;
+    private String error;
+}
@@ -0,0 +1,9 @@
+package com.demo.orders.dtos;
+
+public enum BulkItemStatus {
+    ACCEPTED,
+    INVALID,
+    DUPLICATE,
+    NOT_FOUND,
+    NOT_LINKED
+}
@@ -0,0 +1,19 @@
+package com.demo.orders.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-item report of a bulk request. All accepted items are written by one operation, operationId is
+ * null when no item was accepted.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResultDto {
+    private String operationId;
+    private List<BulkItemResultDto> items;
+}
@@ -0,0 +1,14 @@
+package com.demo.orders.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdsDto {
+    private List<String> ids;
+}
@@ -0,0 +1,7 @@
+package com.demo.orders.dtos;
+
+public enum OperationStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,16 @@
+package com.demo.orders.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperationStatusDto {
+    private String operationId;
+    private OperationStatus status;
+    private String error;
+    private String submitDate;
+    private String completeDate;
+}
@@ -0,0 +1,13 @@
+package com.demo.orders.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubmittedOperationDto {
+    private String id;
+    private String operationId;
+}
@@ -0,0 +1,7 @@
+package com.demo.orders.exceptions;
+
+public class OperationNotFoundException extends RuntimeException {
+    public OperationNotFoundException(String s) {
+        super(s);
+    }
+}
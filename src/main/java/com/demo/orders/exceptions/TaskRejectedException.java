@@ -0,0 +1,7 @@
+package com.demo.orders.exceptions;
+
+public class TaskRejectedException extends RuntimeException {
+    public TaskRejectedException(String s) {
+        super(s);
+    }
+}
@@ -1,7 +1,11 @@
 package com.demo.orders.exceptions;
 
+/**
+ * Raised for bad client input, which is answered with 400 and never logged, so it skips filling in the
+ * stack trace. Scanners and broken clients can produce a lot of these.
+ */
 public class ValidationException extends RuntimeException {
     public ValidationException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 }
@@ -0,0 +1,127 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites ids still stored in the string form to binary, for switching binaryIds on over existing
+ * data. It runs while the context starts, before requests are served, as reads in binary mode do not
+ * find string ids. Orders and products get a new document because an _id cannot change: the binary
+ * copy is upserted first and the string one removed after, so a pass that was cut off is finished by
+ * the next one.
+ */
+@Slf4j
+@Component
+public class BinaryIdMigration {
+    private static final String ID = "_id";
+    private static final String PRODUCTS = "products";
+    private static final String ORDER_ID = "orderId";
+    private static final String PRODUCT_ID = "productId";
+
+    private final MongoOperations mongoOperations;
+    private final IdStorage idStorage;
+    private final int batchSize;
+
+    @Autowired
+    public BinaryIdMigration(MongoOperations mongoOperations,
+                             IdStorage idStorage,
+                             @Value("${ordersReadBatchSize}") int batchSize) {
+        this.mongoOperations = mongoOperations;
+        this.idStorage = idStorage;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void migrateOnStartup() {
+        if (!idStorage.isBinary()) {
+            return;
+        }
+        long migrated = migrate();
+        if (migrated > 0) {
+            log.info("Rewrote {} documents to binary ids", migrated);
+        }
+    }
+
+    /**
+     * Returns the number of documents rewritten, 0 once everything is binary.
+     */
+    public long migrate() {
+        return migrateIds(collection(Order.class)) + migrateIds(collection(Product.class)) + migrateLinks();
+    }
+
+    private long migrateIds(MongoCollection<Document> collection) {
+        long migrated = 0;
+        while (true) {
+            List<Document> documents = collection.find(Filters.type(ID, BsonType.STRING)).limit(batchSize).into(new ArrayList<>());
+            if (documents.isEmpty()) {
+                return migrated;
+            }
+            List<WriteModel<Document>> copies = new ArrayList<>(documents.size());
+            List<Object> stringIds = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                stringIds.add(document.get(ID));
+                document.put(ID, IdStorage.toBinary(document.getString(ID)));
+                List<Document> snapshots = document.getList(PRODUCTS, Document.class);
+                if (snapshots != null) {
+                    snapshots.forEach(snapshot -> toBinary(snapshot, PRODUCT_ID));
+                }
+                copies.add(new ReplaceOneModel<>(Filters.eq(ID, document.get(ID)), document, new ReplaceOptions().upsert(true)));
+            }
+            collection.bulkWrite(copies, new BulkWriteOptions().ordered(false));
+            collection.deleteMany(Filters.in(ID, stringIds));
+            migrated += documents.size();
+        }
+    }
+
+    private long migrateLinks() {
+        MongoCollection<Document> collection = collection(LinkOrderProducts.class);
+        long migrated = 0;
+        while (true) {
+            List<Document> links = collection.find(Filters.or(Filters.type(ORDER_ID, BsonType.STRING), Filters.type(PRODUCT_ID, BsonType.STRING)))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+            if (links.isEmpty()) {
+                return migrated;
+            }
+            List<WriteModel<Document>> updates = new ArrayList<>(links.size());
+            for (Document link : links) {
+                toBinary(link, ORDER_ID);
+                toBinary(link, PRODUCT_ID);
+                updates.add(new UpdateOneModel<>(Filters.eq(ID, link.get(ID)),
+                        Updates.combine(Updates.set(ORDER_ID, link.get(ORDER_ID)), Updates.set(PRODUCT_ID, link.get(PRODUCT_ID)))));
+            }
+            collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            migrated += links.size();
+        }
+    }
+
+    private MongoCollection<Document> collection(Class<?> type) {
+        return mongoOperations.getCollection(mongoOperations.getCollectionName(type));
+    }
+
+    private static void toBinary(Document document, String field) {
+        if (document.get(field) instanceof String id) {
+            document.put(field, IdStorage.toBinary(id));
+        }
+    }
+}
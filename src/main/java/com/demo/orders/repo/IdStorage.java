@@ -0,0 +1,130 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.CommonUtils;
+import org.bson.BsonBinarySubType;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterRegistry;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * How order and product ids are stored. They keep the 36 char string form by default, with binaryIds
+ * they are written as BSON binary subtype 4, 16 bytes instead of 36 plus the string overhead, which
+ * about halves the id indexes. The id fields of the entities ask for a binary target type, it only
+ * applies while the String to Binary conversion is registered here. Both forms are read back as the
+ * string form, so the REST format does not change and {@link BinaryIdMigration} can move existing data.
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdStorage {
+
+    private final boolean binaryIds;
+
+    public IdStorage(@Value("${binaryIds}") boolean binaryIds) {
+        this.binaryIds = binaryIds;
+    }
+
+    public boolean isBinary() {
+        return binaryIds;
+    }
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        List<Object> converters = new ArrayList<>();
+        converters.add(BinaryToIdConverter.INSTANCE);
+        if (binaryIds) {
+            converters.add(IdToBinaryConverter.INSTANCE);
+        }
+        return new MongoCustomConversions(converters);
+    }
+
+    @Bean
+    static BeanPostProcessor idListMapping(ObjectProvider<IdStorage> idStorage) {
+        // looked up late, post processors are created before the placeholders of binaryIds resolve
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof MappingMongoConverter converter) {
+                    idStorage.getObject().applyTo(converter);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * For a list of ids the query mapping asks whether the list converts to the binary target type, which
+     * the generic Collection to Object conversion always answers with yes, and then converts every id
+     * alone. Without the String to Binary conversion that fails, so in string mode the generic one is
+     * dropped and lists of ids in $in and $nin stay strings. Converters built outside of Spring call this
+     * after afterPropertiesSet.
+     */
+    public void applyTo(MappingMongoConverter converter) {
+        ConversionService conversionService = converter.getConversionService();
+        if (!binaryIds && conversionService instanceof ConverterRegistry registry) {
+            registry.removeConvertible(Collection.class, Object.class);
+        }
+    }
+
+    /**
+     * The form an id is stored in, for queries the mapping does not convert by itself: range operators
+     * on ids and array filters.
+     */
+    public Object toStored(String id) {
+        return binaryIds ? toBinary(id) : id;
+    }
+
+    static Binary toBinary(String id) {
+        UUID uuid = CommonUtils.toUUID(id, "id");
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+        return new Binary(BsonBinarySubType.UUID_STANDARD, bytes);
+    }
+
+    static String fromBinary(Binary binary) {
+        if (binary.getType() != BsonBinarySubType.UUID_STANDARD.getValue() || binary.length() != 16) {
+            throw new IllegalArgumentException("Not a subtype 4 UUID: subtype " + binary.getType() + ", " + binary.length() + " bytes");
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(binary.getData());
+        return new UUID(bytes.getLong(), bytes.getLong()).toString();
+    }
+
+    /**
+     * Marked as reading converter so it only ends up in the conversion service, where fields with a
+     * binary target type find it. As writing converter it would turn every String into a Binary.
+     */
+    @ReadingConverter
+    enum IdToBinaryConverter implements Converter<String, Binary> {
+        INSTANCE;
+
+        @Override
+        public Binary convert(String source) {
+            return toBinary(source);
+        }
+    }
+
+    @ReadingConverter
+    enum BinaryToIdConverter implements Converter<Binary, String> {
+        INSTANCE;
+
+        @Override
+        public String convert(Binary source) {
+            return fromBinary(source);
+        }
+    }
+}
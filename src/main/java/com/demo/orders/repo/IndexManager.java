@@ -0,0 +1,102 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the secondary indexes the repository queries rely on while the context starts. Spring Boot
+ * leaves index creation from mapping annotations off, so every index is declared here rather than on
+ * the entities. Building an index that exists is a no-op, and orders and products are only looked up
+ * by their _id otherwise. Links were not unique before the index on them was, so duplicates are
+ * removed before it is built for the first time.
+ */
+@Slf4j
+@Component
+public class IndexManager {
+
+    private final MongoOperations mongoOperations;
+    private final boolean embeddedProductSnapshots;
+
+    @Autowired
+    public IndexManager(MongoOperations mongoOperations,
+                        @Value("${embeddedProductSnapshots}") boolean embeddedProductSnapshots) {
+        this.mongoOperations = mongoOperations;
+        this.embeddedProductSnapshots = embeddedProductSnapshots;
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        if (!hasUniqueLinkIndex()) {
+            removeDuplicateLinks();
+        }
+        for (ManagedIndex index : indexes()) {
+            String name = mongoOperations.indexOps(index.type()).ensureIndex(index.index());
+            log.debug("Index {} of {} is in place", name, index.type().getSimpleName());
+        }
+    }
+
+    /**
+     * Keeps the first link of every order and product pair and deletes the others.
+     *
+     * @return the number of deleted links
+     */
+    private long removeDuplicateLinks() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                        Aggregation.group("orderId", "productId").push("_id").as("ids").count().as("count"),
+                        Aggregation.match(Criteria.where("count").gt(1)))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+        long deleted = 0;
+        int pairs = 0;
+        for (Document pair : mongoOperations.aggregate(duplicates, LinkOrderProducts.class, Document.class)) {
+            List<?> ids = pair.getList("ids", Object.class);
+            Query extra = Query.query(Criteria.where("_id").in(ids.subList(1, ids.size())));
+            deleted += mongoOperations.remove(extra, LinkOrderProducts.class).getDeletedCount();
+            pairs++;
+        }
+        if (pairs > 0) {
+            log.warn("Deleted {} duplicate links of {} order and product pairs before building the unique link index", deleted, pairs);
+        }
+        return deleted;
+    }
+
+    private boolean hasUniqueLinkIndex() {
+        return mongoOperations.indexOps(LinkOrderProducts.class).getIndexInfo().stream()
+                .filter(IndexInfo::isUnique)
+                .anyMatch(info -> info.isIndexForFields(List.of("orderId", "productId")));
+    }
+
+    public List<ManagedIndex> indexes() {
+        List<ManagedIndex> indexes = new ArrayList<>();
+        // lookups of an order, and a covering index for reading the product ids of one
+        indexes.add(new ManagedIndex(LinkOrderProducts.class, new Index()
+                .on("orderId", Sort.Direction.ASC)
+                .on("productId", Sort.Direction.ASC)
+                .unique()));
+        // lookups and deletes of a product, which the compound index above cannot serve
+        indexes.add(new ManagedIndex(LinkOrderProducts.class, new Index().on("productId", Sort.Direction.ASC)));
+        if (embeddedProductSnapshots) {
+            // product updates and deletes fan out to the orders embedding a snapshot of the product
+            indexes.add(new ManagedIndex(Order.class, new Index().on("products.productId", Sort.Direction.ASC)));
+        }
+        return indexes;
+    }
+
+    public record ManagedIndex(Class<?> type, Index index) {
+    }
+}
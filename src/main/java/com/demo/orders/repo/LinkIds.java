@@ -0,0 +1,12 @@
+package com.demo.orders.repo;
+
+/**
+ * The two ids of a link without the rest of the document. Queries returning it project on exactly
+ * these fields, so the {orderId, productId} index answers them without fetching documents.
+ */
+public interface LinkIds {
+
+    String getOrderId();
+
+    String getProductId();
+}
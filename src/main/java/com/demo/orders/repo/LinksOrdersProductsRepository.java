@@ -2,21 +2,35 @@ package com.demo.orders.repo;
 
 import com.demo.orders.repo.entities.LinkOrderProducts;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LinksOrdersProductsRepository extends MongoRepository<LinkOrderProducts, String> {
+public interface LinksOrdersProductsRepository extends MongoRepository<LinkOrderProducts, String>, LinksOrdersProductsRepositoryCustom {
+    // _id has to be left out for the index to cover the query
+    String LINK_IDS = "{ '_id': 0, 'orderId': 1, 'productId': 1 }";
 
     List<LinkOrderProducts> findByOrderId(String orderId);
 
-    Optional<LinkOrderProducts> findByOrderIdAndProductId(String orderId, String productId);
+    /**
+     * Covered by the {orderId, productId} index, the documents themselves are not read.
+     */
+    @Query(value = "{ 'orderId': ?0 }", fields = LINK_IDS)
+    List<LinkIds> findLinkIdsByOrderId(String orderId);
 
-    Optional<LinkOrderProducts> findByProductId(String productId);
+    /**
+     * Covered by the {orderId, productId} index, the documents themselves are not read.
+     */
+    @Query(value = "{ 'orderId': { '$in': ?0 } }", fields = LINK_IDS)
+    List<LinkIds> findLinkIdsByOrderIdIn(Collection<String> orderIds);
 
-    void deleteByProductId(String productId);
+    Optional<LinkOrderProducts> findByOrderIdAndProductId(String orderId, String productId);
 
-    void deleteByOrderId(String orderId);
+    List<LinkOrderProducts> findByOrderIdAndProductIdIn(String orderId, Collection<String> productIds);
+
+    Optional<LinkOrderProducts> findByProductId(String productId);
 }
@@ -0,0 +1,32 @@
+package com.demo.orders.repo;
+
+import java.util.Collection;
+
+public interface LinksOrdersProductsRepositoryCustom {
+
+    /**
+     * Links all products to the order with a single bulkWrite of upserts, existing links stay as they
+     * are. Returns the number of links created.
+     */
+    int linkAll(String orderId, Collection<String> productIds);
+
+    /**
+     * Removes all links of the product with a single deleteMany. Returns the number of links removed.
+     */
+    long deleteByProductId(String productId);
+
+    /**
+     * Removes all links of the products with a single deleteMany. Returns the number of links removed.
+     */
+    long deleteByProductIdIn(Collection<String> productIds);
+
+    /**
+     * Removes all links of the order with a single deleteMany. Returns the number of links removed.
+     */
+    long deleteByOrderId(String orderId);
+
+    /**
+     * Removes all links of the orders with a single deleteMany. Returns the number of links removed.
+     */
+    long deleteByOrderIdIn(Collection<String> orderIds);
+}
@@ -0,0 +1,60 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+public class LinksOrdersProductsRepositoryCustomImpl implements LinksOrdersProductsRepositoryCustom {
+
+    private final MongoOperations mongoOperations;
+
+    public LinksOrdersProductsRepositoryCustomImpl(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public int linkAll(String orderId, Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, LinkOrderProducts.class);
+        for (String productId : productIds) {
+            Update update = new Update().setOnInsert("orderId", orderId).setOnInsert("productId", productId);
+            operations.upsert(linkQuery(orderId, productId), update);
+        }
+        return operations.execute().getUpserts().size();
+    }
+
+    @Override
+    public long deleteByProductId(String productId) {
+        return deleteMany(Criteria.where("productId").is(productId));
+    }
+
+    @Override
+    public long deleteByProductIdIn(Collection<String> productIds) {
+        return productIds.isEmpty() ? 0 : deleteMany(Criteria.where("productId").in(productIds));
+    }
+
+    @Override
+    public long deleteByOrderId(String orderId) {
+        return deleteMany(Criteria.where("orderId").is(orderId));
+    }
+
+    @Override
+    public long deleteByOrderIdIn(Collection<String> orderIds) {
+        return orderIds.isEmpty() ? 0 : deleteMany(Criteria.where("orderId").in(orderIds));
+    }
+
+    private long deleteMany(Criteria criteria) {
+        return mongoOperations.remove(Query.query(criteria), LinkOrderProducts.class).getDeletedCount();
+    }
+
+    private static Query linkQuery(String orderId, String productId) {
+        return Query.query(Criteria.where("orderId").is(orderId).and("productId").is(productId));
+    }
+}
@@ -1,9 +1,23 @@
 package com.demo.orders.repo;
 
 import com.demo.orders.repo.entities.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrdersRepository extends MongoRepository<Order, String> {
+
+    Stream<Order> streamAllBy();
+
+    List<Order> findAllBy(Pageable pageable);
+
+    /**
+     * Takes the stored form of the id, see {@link IdStorage#toStored(String)}, the id mapping does not
+     * reach into range operators.
+     */
+    List<Order> findByOrderIdGreaterThan(Object orderId, Pageable pageable);
 }
@@ -1,17 +1,21 @@
 package com.demo.orders.repo.entities;
 
+import com.demo.orders.repo.LinkIds;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 @Document
 @Data
-@CompoundIndex(def = "{'orderId': 1, 'productId': 1}", unique = true)
-public class LinkOrderProducts {
+// indexes are built by IndexManager
+public class LinkOrderProducts implements LinkIds {
 
     @Id
     private String id;
+    @Field(targetType = FieldType.BINARY)
     private String orderId;
+    @Field(targetType = FieldType.BINARY)
     private String productId;
 }
@@ -4,17 +4,30 @@ package com.demo.orders.repo.entities;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.PersistenceCreator;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.util.List;
 
 @Document
 @Data
-@AllArgsConstructor
+@AllArgsConstructor(onConstructor_ = @PersistenceCreator)
 
 public class Order {
 
     @Id
+    // binary only while binaryIds is on, see IdStorage
+    @Field(targetType = FieldType.BINARY)
     private String orderId;
     private String orderName;
     private Long createDate;
     private Long updateDate;
+    // embedded copies of the linked products, only kept when embeddedProductSnapshots is on, null until backfilled
+    private List<ProductSnapshot> products;
+
+    public Order(String orderId, String orderName, Long createDate, Long updateDate) {
+        this(orderId, orderName, createDate, updateDate, null);
+    }
 }
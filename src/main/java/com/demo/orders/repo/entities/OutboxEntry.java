@@ -0,0 +1,52 @@
+package com.demo.orders.repo.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * What brings the data of a task in line again when the task is cut off midway, recorded before the
+ * task writes while consistencyEngine is OUTBOX. Every action converges on the current state of the
+ * links and products, so it can be applied more than once and after later tasks of the same keys.
+ */
+@Document("outbox")
+@Data
+@AllArgsConstructor
+public class OutboxEntry {
+
+    // the idempotency key of the entry, ObjectIds keep entries in the order they were recorded
+    @Id
+    private String id;
+    private Action action;
+    private List<String> ids;
+    private Long createDate;
+
+    public static OutboxEntry of(Action action, Collection<String> ids) {
+        return new OutboxEntry(new ObjectId().toHexString(), action, new ArrayList<>(ids), System.currentTimeMillis());
+    }
+
+    public enum Action {
+        /**
+         * Deletes the orders and their links, ids are order ids.
+         */
+        DELETE_ORDERS,
+        /**
+         * Deletes the products, their links and their snapshots, ids are product ids.
+         */
+        DELETE_PRODUCTS,
+        /**
+         * Rewrites the snapshots of the orders from their links, ids are order ids.
+         */
+        REBUILD_SNAPSHOTS,
+        /**
+         * Copies the stored products into the snapshots holding them, ids are product ids.
+         */
+        REFRESH_SNAPSHOTS
+    }
+}
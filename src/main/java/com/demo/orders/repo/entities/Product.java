@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 @Document
 @Data
@@ -11,6 +13,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class Product {
 
     @Id
+    @Field(targetType = FieldType.BINARY)
     private String productId;
     private String productName;
     private Double productPrice;
@@ -0,0 +1,25 @@
+package com.demo.orders.repo.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * A copy of a product embedded in an {@link Order}, the links collection stays the source of truth.
+ */
+@Data
+@AllArgsConstructor
+public class ProductSnapshot {
+
+    @Field(targetType = FieldType.BINARY)
+    private String productId;
+    private String productName;
+    private Double productPrice;
+    private Long createDate;
+    private Long updateDate;
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getProductId(), product.getProductName(), product.getProductPrice(), product.getCreateDate(), product.getUpdateDate());
+    }
+}
@@ -0,0 +1,52 @@
+package com.demo.orders.services;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts a batch of documents unordered, so a failed document does not stop the ones after it, and
+ * reports the failures by their index in the batch.
+ */
+final class BatchInserts {
+    private static final int DUPLICATE_KEY = 11000;
+
+    private BatchInserts() {
+    }
+
+    static <T> Map<Integer, Throwable> insert(TransactionalInvoker transactionalInvoker, MongoOperations mongoOperations, List<T> documents, Class<T> type) {
+        try {
+            transactionalInvoker.invokeTransactional(() -> mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute());
+            return Map.of();
+        } catch (BulkOperationException e) {
+            // a write error aborts a transaction, nothing of the batch was kept then
+            if (transactionalInvoker.getEngine() == ConsistencyEngine.TRANSACTIONS || e.getErrors().isEmpty()) {
+                throw e;
+            }
+            Map<Integer, Throwable> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getCode() == DUPLICATE_KEY
+                        ? new DuplicateKeyException(error.getMessage())
+                        : new DataIntegrityViolationException(error.getMessage()));
+            }
+            return failures;
+        }
+    }
+
+    /**
+     * For callers that track the whole batch as one operation.
+     */
+    static void requireAll(Map<Integer, Throwable> failures, int size) {
+        if (!failures.isEmpty()) {
+            Throwable first = failures.values().iterator().next();
+            throw new DataIntegrityViolationException(String.format("%d of %d documents were not inserted: %s", failures.size(), size, first.getMessage()), first);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.orders.services;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.BulkItemResultDto;
+import com.demo.orders.dtos.BulkItemStatus;
+import com.demo.orders.dtos.BulkResultDto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the per-item outcome of a bulk request in request order. Ids start as accepted unless they
+ * are malformed or repeated, later checks reject them one by one.
+ */
+class BulkReport {
+
+    private final List<BulkItemResultDto> items = new ArrayList<>();
+    private final Map<String, BulkItemResultDto> accepted = new LinkedHashMap<>();
+
+    static BulkReport ofIds(List<String> ids) {
+        BulkReport report = new BulkReport();
+        Set<String> seen = new HashSet<>();
+        for (String id : ids) {
+            if (id == null || !CommonUtils.isUUID(id)) {
+                report.items.add(new BulkItemResultDto(id, BulkItemStatus.INVALID, "Invalid identifier format"));
+            } else if (!seen.add(id)) {
+                report.items.add(new BulkItemResultDto(id, BulkItemStatus.DUPLICATE, "Identifier is repeated in the request"));
+            } else {
+                report.accept(id);
+            }
+        }
+        return report;
+    }
+
+    void accept(String id) {
+        BulkItemResultDto item = new BulkItemResultDto(id, BulkItemStatus.ACCEPTED, null);
+        items.add(item);
+        accepted.put(id, item);
+    }
+
+    void reject(String id, BulkItemStatus status, String error) {
+        BulkItemResultDto item = accepted.remove(id);
+        if (item != null) {
+            item.setStatus(status);
+            item.setError(error);
+        }
+    }
+
+    /**
+     * Rejects every accepted id that is not in {@code found}.
+     */
+    void rejectMissing(Set<String> found, BulkItemStatus status, String error) {
+        for (String id : List.copyOf(accepted.keySet())) {
+            if (!found.contains(id)) {
+                reject(id, status, error);
+            }
+        }
+    }
+
+    List<String> accepted() {
+        return List.copyOf(accepted.keySet());
+    }
+
+    BulkResultDto toDto(String operationId) {
+        return new BulkResultDto(operationId, items);
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.orders.services;
+
+/**
+ * How the writes of a task that spans documents are kept consistent, see {@link TransactionalInvoker}.
+ */
+public enum ConsistencyEngine {
+    /**
+     * The writes run one after another, a task cut off midway leaves what it wrote so far.
+     */
+    NONE,
+    /**
+     * The writes of a task run in one multi-document transaction, retried on transient errors. Needs a
+     * replica set.
+     */
+    TRANSACTIONS,
+    /**
+     * A task that spans documents records an {@link com.demo.orders.repo.entities.OutboxEntry} first
+     * and removes it when done, entries left behind are replayed by {@link OutboxRelay}.
+     */
+    OUTBOX
+}
@@ -0,0 +1,112 @@
+package com.demo.orders.services;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.OperationStatusDto;
+import com.demo.orders.exceptions.OperationNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the outcome of the latest asynchronous writes. Operations still pending are always kept, they
+ * are bounded by the lane capacities anyway. Of the completed ones, the earliest completed are evicted
+ * once more than {@code operationsCapacity} are kept.
+ */
+@Component
+public class OperationRegistry {
+
+    private final ConcurrentMap<String, TrackedOperation> operations = new ConcurrentHashMap<>();
+    private final Queue<String> completionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final int capacity;
+
+    @Autowired
+    public OperationRegistry(@Value("${operationsCapacity}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public String register(CompletableFuture<?> future) {
+        String operationId = UUID.randomUUID().toString();
+        operations.put(operationId, new TrackedOperation(operationId, future));
+        // only after the put, an operation that is already done is evicted like any other
+        future.whenComplete((result, error) -> retire(operationId));
+        return operationId;
+    }
+
+    private void retire(String operationId) {
+        completionOrder.add(operationId);
+        completed.incrementAndGet();
+        String eldest;
+        while (completed.get() > capacity && (eldest = completionOrder.poll()) != null) {
+            operations.remove(eldest);
+            completed.decrementAndGet();
+        }
+    }
+
+    public OperationStatusDto getStatus(String operationId) {
+        return getOperation(operationId).toDto();
+    }
+
+    public CompletableFuture<OperationStatusDto> awaitStatus(String operationId, Duration timeout) {
+        TrackedOperation operation = getOperation(operationId);
+        if (operation.future.isDone() || timeout.isZero()) {
+            return CompletableFuture.completedFuture(operation.toDto());
+        }
+        return operation.future
+                .handle((result, error) -> operation)
+                .completeOnTimeout(operation, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(TrackedOperation::toDto);
+    }
+
+    private TrackedOperation getOperation(String operationId) {
+        TrackedOperation operation = operations.get(operationId);
+        if (operation == null) {
+            throw new OperationNotFoundException("Operation with ID " + operationId + " not found");
+        }
+        return operation;
+    }
+
+    private static final class TrackedOperation {
+        private final String operationId;
+        private final long submitDate;
+        private final CompletableFuture<?> future;
+        private volatile long completeDate;
+
+        private TrackedOperation(String operationId, CompletableFuture<?> future) {
+            this.operationId = operationId;
+            this.submitDate = System.currentTimeMillis();
+            this.future = future;
+            future.whenComplete((result, error) -> completeDate = System.currentTimeMillis());
+        }
+
+        private OperationStatusDto toDto() {
+            if (!future.isDone()) {
+                return new OperationStatusDto(operationId, OperationStatus.PENDING, null, CommonUtils.mapEpochMillisToTimestamp(submitDate), null);
+            }
+            String error = null;
+            OperationStatus status = OperationStatus.COMPLETED;
+            if (future.isCompletedExceptionally()) {
+                status = OperationStatus.FAILED;
+                Throwable cause = future.handle((result, e) -> e).join();
+                if (cause instanceof CompletionException && cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                error = cause.getMessage();
+            }
+            long completedAt = completeDate == 0 ? System.currentTimeMillis() : completeDate;
+            return new OperationStatusDto(operationId, status, error, CommonUtils.mapEpochMillisToTimestamp(submitDate), CommonUtils.mapEpochMillisToTimestamp(completedAt));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.repo.LinkIds;
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the product snapshots embedded in orders in line with the links collection, when
+ * embeddedProductSnapshots is on. Every method is a no-op otherwise. Writes are meant to run inside the
+ * task that changes the links, so they share its transaction.
+ */
+@Component
+public class OrderProductSnapshots {
+    private static final String PRODUCTS = "products";
+
+    private final MongoOperations mongoOperations;
+    private final LinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final ProductCache productCache;
+    private final IdStorage idStorage;
+    private final boolean enabled;
+
+    @Autowired
+    public OrderProductSnapshots(MongoOperations mongoOperations,
+                                 LinksOrdersProductsRepository linksOrdersProductsRepository,
+                                 ProductCache productCache,
+                                 IdStorage idStorage,
+                                 @Value("${embeddedProductSnapshots}") boolean enabled) {
+        this.mongoOperations = mongoOperations;
+        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
+        this.productCache = productCache;
+        this.idStorage = idStorage;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Snapshots for a new order, which starts with no products.
+     */
+    public List<ProductSnapshot> initial() {
+        return enabled ? new ArrayList<>() : null;
+    }
+
+    public void add(String orderId, Product product) {
+        if (!enabled) {
+            return;
+        }
+        // orders that were not backfilled yet are left alone, a partial array would pass for a complete one
+        Query query = Query.query(Criteria.where("orderId").is(orderId)
+                .and(PRODUCTS).exists(true)
+                .and(PRODUCTS + ".productId").ne(product.getProductId()));
+        mongoOperations.updateFirst(query, new Update().push(PRODUCTS, ProductSnapshot.of(product)), Order.class);
+    }
+
+    public void removeEverywhere(Collection<String> productIds) {
+        if (!enabled) {
+            return;
+        }
+        Query query = Query.query(Criteria.where(PRODUCTS + ".productId").in(productIds));
+        Query pulled = Query.query(Criteria.where("productId").in(productIds));
+        mongoOperations.updateMulti(query, new Update().pull(PRODUCTS, pulled), Order.class);
+    }
+
+    /**
+     * Fans a product update out to every order holding a snapshot of it, in one multi-document update.
+     */
+    public void refresh(String productId, Map<String, Object> fields, long updateDate) {
+        if (!enabled) {
+            return;
+        }
+        Update update = new Update();
+        fields.forEach((field, value) -> update.set(PRODUCTS + ".$[p]." + field, value));
+        update.set(PRODUCTS + ".$[p].updateDate", updateDate);
+        // array filters are passed on unmapped
+        update.filterArray(Criteria.where("p.productId").is(idStorage.toStored(productId)));
+        mongoOperations.updateMulti(Query.query(Criteria.where(PRODUCTS + ".productId").is(productId)), update, Order.class);
+    }
+
+    /**
+     * Copies the stored product into every snapshot of it.
+     */
+    public void refresh(Product product) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("productName", product.getProductName());
+        fields.put("productPrice", product.getProductPrice());
+        refresh(product.getProductId(), fields, product.getUpdateDate());
+    }
+
+    /**
+     * Rewrites the snapshots of one order from its links. Has to run as a task of the order key, so it
+     * does not race with adds and removes of the same order.
+     */
+    public void rebuild(String orderId) {
+        List<ProductSnapshot> snapshots = expected(List.of(orderId)).getOrDefault(orderId, List.of());
+        mongoOperations.updateFirst(Query.query(Criteria.where("orderId").is(orderId)),
+                new Update().set(PRODUCTS, snapshots), Order.class);
+    }
+
+    /**
+     * The snapshots every given order should hold according to the links, one links query and one
+     * products lookup for the whole batch.
+     */
+    public Map<String, List<ProductSnapshot>> expected(Collection<String> orderIds) {
+        Map<String, List<String>> productIdsByOrder = new HashMap<>();
+        List<String> productIds = new ArrayList<>();
+        for (LinkIds link : linksOrdersProductsRepository.findLinkIdsByOrderIdIn(orderIds)) {
+            productIdsByOrder.computeIfAbsent(link.getOrderId(), id -> new ArrayList<>()).add(link.getProductId());
+            productIds.add(link.getProductId());
+        }
+        Map<String, ProductSnapshot> products = new HashMap<>();
+        for (Product product : productCache.getAll(productIds.stream().distinct().toList())) {
+            products.put(product.getProductId(), ProductSnapshot.of(product));
+        }
+        Map<String, List<ProductSnapshot>> expected = new HashMap<>();
+        productIdsByOrder.forEach((orderId, ids) -> expected.put(orderId, ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList()));
+        return expected;
+    }
+
+    /**
+     * Order does not matter, an order holds each product once.
+     */
+    public static boolean same(List<ProductSnapshot> embedded, List<ProductSnapshot> expected) {
+        if (embedded == null || embedded.size() != expected.size()) {
+            return false;
+        }
+        return byProductId(embedded).equals(byProductId(expected));
+    }
+
+    private static Map<String, ProductSnapshot> byProductId(List<ProductSnapshot> snapshots) {
+        Map<String, ProductSnapshot> byId = new LinkedHashMap<>();
+        snapshots.forEach(snapshot -> byId.put(snapshot.getProductId(), snapshot));
+        return byId;
+    }
+}
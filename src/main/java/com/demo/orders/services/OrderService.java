@@ -1,66 +1,123 @@
 package com.demo.orders.services;
 
-import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.BulkItemStatus;
+import com.demo.orders.dtos.BulkResultDto;
 import com.demo.orders.dtos.OrderDto;
 import com.demo.orders.dtos.OrderViewDto;
-import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
 import com.demo.orders.exceptions.LinkOrderProductsNotFoundException;
 import com.demo.orders.exceptions.OrderNotFoundException;
+import com.demo.orders.exceptions.ValidationException;
+import com.demo.orders.repo.IdStorage;
 import com.demo.orders.repo.LinksOrdersProductsRepository;
 import com.demo.orders.repo.OrdersRepository;
-import com.demo.orders.repo.entities.LinkOrderProducts;
 import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.OutboxEntry;
+import com.demo.orders.services.executors.MicroBatcher;
 import com.demo.orders.services.executors.OrderedTaskManager;
+import com.demo.orders.services.executors.TaskExecutor;
 import com.demo.orders.services.executors.TaskManager;
+import com.demo.orders.services.executors.UpdateCoalescer;
+import com.demo.orders.services.ids.IdGenerator;
 import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
 
     private final TaskManager taskManager;
+    private final MicroBatcher<Order> orderInserts;
     private final OrderedTaskManager orderedTaskManager;
+    private final TaskExecutor deleteLane;
+    private final UpdateCoalescer<Map<String, Object>> orderUpdates;
+    private final MongoOperations mongoOperations;
     private final OrdersRepository ordersRepository;
     private final LinksOrdersProductsRepository linksOrdersProductsRepository;
     private final ProductsService productsService;
     private final TransactionalInvoker transactionalInvoker;
+    private final OrderViewAssembler orderViewAssembler;
+    private final OrderProductSnapshots orderProductSnapshots;
+    private final OperationRegistry operationRegistry;
+    private final IdStorage idStorage;
+    private final IdGenerator idGenerator;
 
     @Autowired
     public OrderService(OrdersRepository ordersRepository,
                         ProductsService productsService,
                         LinksOrdersProductsRepository linksOrdersProductsRepository,
                         TransactionalInvoker transactionalInvoker,
-                        @Value("${nonConcurrentTaskThreadsNumber}") int nonConTaskThreadsNum,
-                        @Value("${concurrentTaskThreadsNumber}") int conTaskThreadsNum) {
+                        OrderViewAssembler orderViewAssembler,
+                        OrderProductSnapshots orderProductSnapshots,
+                        OperationRegistry operationRegistry,
+                        IdStorage idStorage,
+                        IdGenerator idGenerator,
+                        MongoOperations mongoOperations,
+                        TaskLanes taskLanes,
+                        @Value("${createBatchMaxSize}") int createBatchMaxSize,
+                        @Value("${createBatchLingerMillis}") long createBatchLingerMillis) {
         this.ordersRepository = ordersRepository;
         this.productsService = productsService;
         this.linksOrdersProductsRepository = linksOrdersProductsRepository;
         this.transactionalInvoker = transactionalInvoker;
-        this.taskManager = new TaskManager(nonConTaskThreadsNum);
-        this.orderedTaskManager = new OrderedTaskManager(conTaskThreadsNum);
+        this.orderViewAssembler = orderViewAssembler;
+        this.orderProductSnapshots = orderProductSnapshots;
+        this.operationRegistry = operationRegistry;
+        this.idStorage = idStorage;
+        this.idGenerator = idGenerator;
+        this.mongoOperations = mongoOperations;
+        this.taskManager = new TaskManager(taskLanes.getCreateLane());
+        this.orderedTaskManager = taskLanes.getOrderedTaskManager();
+        this.deleteLane = taskLanes.getDeleteLane();
+        this.orderInserts = new MicroBatcher<>("orders-create", createBatchMaxSize, createBatchLingerMillis, this::insertBatch);
+        this.orderUpdates = new UpdateCoalescer<>(orderedTaskManager, UpdateCoalescer::mergeFields, this::writeOrderUpdate);
     }
 
     @PreDestroy
     public void cleanUp() {
-        taskManager.shutdown();
-        orderedTaskManager.shutdown();
+        orderInserts.shutdown();
     }
 
-    public String createOrder(OrderDto orderDto) {
-        String generatedId = UUID.randomUUID().toString();
-        Runnable r = () -> transactionalInvoker.invokeTransactional(() -> {
-            Order order = mapDtoToEntity(orderDto, generatedId);
-            ordersRepository.save(order);
-        });
-        taskManager.submitCreateTask(r);
-        return generatedId;
+    public SubmittedOperationDto createOrder(OrderDto orderDto) {
+        String generatedId = idGenerator.newId();
+        Order order = mapDtoToEntity(orderDto, generatedId);
+        return submitted(generatedId, orderInserts.submit(order));
+    }
+
+    public BulkResultDto createOrders(List<OrderDto> orderDtos) {
+        BulkReport report = new BulkReport();
+        List<Order> orders = new ArrayList<>(orderDtos.size());
+        for (OrderDto orderDto : orderDtos) {
+            String generatedId = idGenerator.newId();
+            orders.add(mapDtoToEntity(orderDto, generatedId));
+            report.accept(generatedId);
+        }
+        CompletableFuture<Void> future = insertBatch(orders).thenAccept(failures -> BatchInserts.requireAll(failures, orders.size()));
+        return report.toDto(operationRegistry.register(future));
+    }
+
+    private CompletableFuture<Map<Integer, Throwable>> insertBatch(List<Order> orders) {
+        Map<Integer, Throwable> failures = new HashMap<>();
+        return taskManager.submitCreateTask(() -> failures.putAll(BatchInserts.insert(transactionalInvoker, mongoOperations, orders, Order.class)))
+                .thenApply(done -> failures);
     }
 
     public OrderViewDto getOrderById(String id) {
@@ -69,70 +126,170 @@ public class OrderService {
     }
 
     public List<OrderViewDto> getAllOrders() {
-        return ordersRepository.findAll().stream().map(this::getOrderViewDto).toList();
+        List<OrderViewDto> orders = new ArrayList<>();
+        streamAllOrders(orders::add);
+        return orders;
     }
 
-    public String updateOrder(String id, OrderDto orderDto) {
+    public void streamAllOrders(Consumer<OrderViewDto> consumer) {
+        try (Stream<Order> stream = ordersRepository.streamAllBy()) {
+            orderViewAssembler.assembleAll(stream.iterator(), consumer);
+        }
+    }
+
+    public List<OrderViewDto> getOrdersPage(String after, int limit) {
+        PageRequest page = PageRequest.of(0, limit, Sort.by("orderId"));
+        List<Order> orders = after == null
+                ? ordersRepository.findAllBy(page)
+                : ordersRepository.findByOrderIdGreaterThan(idStorage.toStored(after), page);
+        return orderViewAssembler.assemble(orders);
+    }
+
+    /**
+     * The first page of orders created from {@code epochMillis} on, later pages continue with
+     * {@link #getOrdersPage(String, int)}. Orders with random ids from before the switch to time ordered
+     * ids sort among them by chance.
+     */
+    public List<OrderViewDto> getOrdersPageCreatedFrom(long epochMillis, int limit) {
+        String after = idGenerator.lowerBound(epochMillis)
+                .orElseThrow(() -> new ValidationException("Paging by creation time needs time ordered ids, idGenerator=TIME_ORDERED"));
+        return getOrdersPage(after, limit);
+    }
+
+    public SubmittedOperationDto updateOrder(String id, OrderDto orderDto) {
         Order order = getOrderEntityById(id);
-        Runnable r = () -> transactionalInvoker.invokeTransactional(() -> {
-            order.setOrderName(StringUtils.hasText(orderDto.getOrderName()) ? orderDto.getOrderName() : null);
-            order.setUpdateDate(System.currentTimeMillis());
-            ordersRepository.save(order);
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("orderName", StringUtils.hasText(orderDto.getOrderName()) ? orderDto.getOrderName() : null);
+        return submitted(order.getOrderId(), orderUpdates.submit(order.getOrderId(), fields));
+    }
+
+    private void writeOrderUpdate(String id, Map<String, Object> fields) {
+        transactionalInvoker.invokeTransactional(() -> {
+            Update update = new Update();
+            fields.forEach(update::set);
+            update.set("updateDate", System.currentTimeMillis());
+            mongoOperations.updateFirst(Query.query(Criteria.where("orderId").is(id)), update, Order.class);
         });
-        orderedTaskManager.submitTask(order.getOrderId(), r);
-        return order.getOrderId();
     }
 
-    public void deleteOrder(String id) {
+    public SubmittedOperationDto deleteOrder(String id) {
         Order order = getOrderEntityById(id);
-        Runnable r = () -> transactionalInvoker.invokeTransactional(() -> ordersRepository.deleteById(id));
-        orderedTaskManager.submitTask(order.getOrderId(), r);
+        orderUpdates.seal(id);
+        // the links go in the same task, with one deleteMany
+        Runnable r = () -> transactionalInvoker.invokeTransactional(OutboxEntry.of(OutboxEntry.Action.DELETE_ORDERS, List.of(id)));
+        return submitted(order.getOrderId(), orderedTaskManager.submitTask(order.getOrderId(), deleteLane, null, r));
     }
 
-    public void addProductToOrder(String orderId, String productId) {
+    public SubmittedOperationDto addProductToOrder(String orderId, String productId) {
         Order order = getOrderEntityById(orderId);
         productsService.getProductById(productId);
         Runnable r = () -> transactionalInvoker.invokeTransactional(() -> {
-            LinkOrderProducts link = new LinkOrderProducts();
-            link.setOrderId(order.getOrderId());
-            link.setProductId(productId);
-            linksOrdersProductsRepository.save(link);
-        });
-        orderedTaskManager.submitTask(order.getOrderId(), r);
+            // an upsert, adding a product that is linked already leaves the order as it is
+            linksOrdersProductsRepository.linkAll(order.getOrderId(), List.of(productId));
+            orderProductSnapshots.add(order.getOrderId(), productsService.getProductEntityById(productId));
+        }, snapshotsRecovery(order.getOrderId()));
+        return submitted(order.getOrderId(), orderedTaskManager.submitTask(order.getOrderId(), r));
     }
 
-    public void removeProductFromOrder(String orderId, String productId) {
+    /**
+     * Removes the product from the order and deletes it. One task holds the keys of the order and of
+     * the product, and deletes the product with its links and snapshots as one recorded step.
+     */
+    public SubmittedOperationDto removeProductFromOrder(String orderId, String productId) {
         Order order = getOrderEntityById(orderId);
         productsService.getProductById(productId);
+        productsService.sealUpdates(List.of(productId));
+        Runnable r = () -> {
+            if (linksOrdersProductsRepository.findByOrderIdAndProductId(order.getOrderId(), productId).isEmpty()) {
+                throw new LinkOrderProductsNotFoundException(String.format("A link for the order with id '%s' was not found", orderId));
+            }
+            productsService.deleteInTask(List.of(productId));
+        };
+        return submitted(order.getOrderId(), orderedTaskManager.submitTask(List.of(order.getOrderId(), productId), deleteLane, null, r));
+    }
+
+    public BulkResultDto deleteOrders(List<String> ids) {
+        BulkReport report = BulkReport.ofIds(ids);
+        report.rejectMissing(findExistingIds(report.accepted()), BulkItemStatus.NOT_FOUND, "Order not found");
+        List<String> accepted = report.accepted();
+        if (accepted.isEmpty()) {
+            return report.toDto(null);
+        }
+        accepted.forEach(orderUpdates::seal);
+        Runnable r = () -> transactionalInvoker.invokeTransactional(OutboxEntry.of(OutboxEntry.Action.DELETE_ORDERS, accepted));
+        return report.toDto(operationRegistry.register(orderedTaskManager.submitTask(accepted, deleteLane, null, r)));
+    }
+
+    public BulkResultDto addProductsToOrder(String orderId, List<String> productIds) {
+        Order order = getOrderEntityById(orderId);
+        BulkReport report = BulkReport.ofIds(productIds);
+        report.rejectMissing(productsService.findExistingIds(report.accepted()), BulkItemStatus.NOT_FOUND, "Product not found");
+        List<String> accepted = report.accepted();
+        if (accepted.isEmpty()) {
+            return report.toDto(null);
+        }
         Runnable r = () -> transactionalInvoker.invokeTransactional(() -> {
-            LinkOrderProducts link = linksOrdersProductsRepository.findByOrderIdAndProductId(orderId, productId).orElseThrow(() -> new LinkOrderProductsNotFoundException(String.format("A link for the order with id '%s' was not found", orderId)));
-            linksOrdersProductsRepository.delete(link);
-            productsService.deleteProduct(productId);
-        });
-        orderedTaskManager.submitTask(order.getOrderId(), r);
+            linksOrdersProductsRepository.linkAll(order.getOrderId(), accepted);
+            if (orderProductSnapshots.isEnabled()) {
+                orderProductSnapshots.rebuild(order.getOrderId());
+            }
+        }, snapshotsRecovery(order.getOrderId()));
+        return report.toDto(operationRegistry.register(orderedTaskManager.submitTask(order.getOrderId(), r)));
     }
 
-    private OrderViewDto getOrderViewDto(Order order) {
-        OrderViewDto orderViewDto = mapEntityToViewWithEmptyProducts(order);
-        List<String> productIds = linksOrdersProductsRepository.findByOrderId(order.getOrderId()).stream()
-                .map(LinkOrderProducts::getProductId).toList();
-        if (!productIds.isEmpty()) {
-            List<ProductViewDto> productViewDtoList = productsService.getProductsIn(productIds);
-            orderViewDto.setProducts(productViewDtoList);
+    /**
+     * Like {@link #removeProductFromOrder(String, String)} for many products, the removed products are
+     * deleted as well. One task holds the keys of the order and of every product, deleting the products
+     * takes their links and snapshots in this order along.
+     */
+    public BulkResultDto removeProductsFromOrder(String orderId, List<String> productIds) {
+        Order order = getOrderEntityById(orderId);
+        BulkReport report = BulkReport.ofIds(productIds);
+        Set<String> linked = new HashSet<>();
+        if (!report.accepted().isEmpty()) {
+            linksOrdersProductsRepository.findByOrderIdAndProductIdIn(orderId, report.accepted())
+                    .forEach(link -> linked.add(link.getProductId()));
+        }
+        report.rejectMissing(linked, BulkItemStatus.NOT_LINKED, "Product is not linked to the order");
+        List<String> accepted = report.accepted();
+        if (accepted.isEmpty()) {
+            return report.toDto(null);
+        }
+        productsService.sealUpdates(accepted);
+        List<String> keys = new ArrayList<>(accepted.size() + 1);
+        keys.add(order.getOrderId());
+        keys.addAll(accepted);
+        Runnable r = () -> productsService.deleteInTask(accepted);
+        return report.toDto(operationRegistry.register(orderedTaskManager.submitTask(keys, deleteLane, null, r)));
+    }
+
+    // without snapshots the links are the only thing a link task writes
+    private OutboxEntry snapshotsRecovery(String orderId) {
+        return orderProductSnapshots.isEnabled() ? OutboxEntry.of(OutboxEntry.Action.REBUILD_SNAPSHOTS, List.of(orderId)) : null;
+    }
+
+    private Set<String> findExistingIds(List<String> ids) {
+        Set<String> found = new HashSet<>();
+        if (!ids.isEmpty()) {
+            ordersRepository.findAllById(ids).forEach(order -> found.add(order.getOrderId()));
         }
-        return orderViewDto;
+        return found;
+    }
+
+    private SubmittedOperationDto submitted(String id, CompletableFuture<Void> future) {
+        return new SubmittedOperationDto(id, operationRegistry.register(future));
+    }
+
+    private OrderViewDto getOrderViewDto(Order order) {
+        return orderViewAssembler.assemble(order);
     }
 
     private Order getOrderEntityById(String id) {
         return ordersRepository.findById(id).orElseThrow(() -> new OrderNotFoundException("Order with ID " + id + " not found"));
     }
 
-    private static Order mapDtoToEntity(OrderDto from, String generatedId) {
+    private Order mapDtoToEntity(OrderDto from, String generatedId) {
         long currTime = System.currentTimeMillis();
-        return new Order(generatedId, from.getOrderName(), currTime, currTime);
-    }
-
-    private static OrderViewDto mapEntityToViewWithEmptyProducts(Order from) {
-        return new OrderViewDto(from.getOrderId(), from.getOrderName(), new ArrayList<>(), CommonUtils.mapEpochMillisToTimestamp(from.getCreateDate()), CommonUtils.mapEpochMillisToTimestamp(from.getUpdateDate()));
+        return new Order(generatedId, from.getOrderName(), currTime, currTime, orderProductSnapshots.initial());
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.demo.orders.services;
+
+import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.repo.LinkIds;
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Builds order views chunk by chunk: one links query and one products query per chunk, whatever the
+ * number of orders in it. Orders carrying embedded product snapshots skip both queries.
+ */
+@Component
+public class OrderViewAssembler {
+
+    private final LinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final ProductsService productsService;
+    private final OrderProductSnapshots orderProductSnapshots;
+    private final int batchSize;
+
+    @Autowired
+    public OrderViewAssembler(LinksOrdersProductsRepository linksOrdersProductsRepository,
+                              ProductsService productsService,
+                              OrderProductSnapshots orderProductSnapshots,
+                              @Value("${ordersReadBatchSize}") int batchSize) {
+        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
+        this.productsService = productsService;
+        this.orderProductSnapshots = orderProductSnapshots;
+        this.batchSize = batchSize;
+    }
+
+    public void assembleAll(Iterator<Order> orders, Consumer<OrderViewDto> consumer) {
+        List<Order> chunk = new ArrayList<>(batchSize);
+        while (orders.hasNext()) {
+            chunk.add(orders.next());
+            if (chunk.size() == batchSize) {
+                assemble(chunk).forEach(consumer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            assemble(chunk).forEach(consumer);
+        }
+    }
+
+    /**
+     * A single order reads its links with an equality match rather than an $in of one id.
+     */
+    public OrderViewDto assemble(Order order) {
+        List<LinkIds> links = hasSnapshots(order) ? List.of() : linksOrdersProductsRepository.findLinkIdsByOrderId(order.getOrderId());
+        return assemble(List.of(order), links).get(0);
+    }
+
+    public List<OrderViewDto> assemble(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<String> orderIds = orders.stream().filter(order -> !hasSnapshots(order)).map(Order::getOrderId).toList();
+        return assemble(orders, orderIds.isEmpty() ? List.of() : linksOrdersProductsRepository.findLinkIdsByOrderIdIn(orderIds));
+    }
+
+    private List<OrderViewDto> assemble(List<Order> orders, List<LinkIds> links) {
+        Map<String, List<String>> productIdsByOrder = new HashMap<>();
+        Set<String> productIds = new LinkedHashSet<>();
+        for (LinkIds link : links) {
+            productIdsByOrder.computeIfAbsent(link.getOrderId(), id -> new ArrayList<>()).add(link.getProductId());
+            productIds.add(link.getProductId());
+        }
+
+        Map<String, ProductViewDto> products = new HashMap<>();
+        for (ProductViewDto product : productsService.getProductsIn(new ArrayList<>(productIds))) {
+            products.put(product.getProductId(), product);
+        }
+
+        List<OrderViewDto> views = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderViewDto view = mapEntityToViewWithEmptyProducts(order);
+            if (hasSnapshots(order)) {
+                order.getProducts().forEach(snapshot -> view.getProducts().add(mapSnapshotToView(snapshot)));
+                views.add(view);
+                continue;
+            }
+            for (String productId : productIdsByOrder.getOrDefault(order.getOrderId(), List.of())) {
+                ProductViewDto product = products.get(productId);
+                if (product != null) {
+                    view.getProducts().add(product);
+                }
+            }
+            views.add(view);
+        }
+        return views;
+    }
+
+    private boolean hasSnapshots(Order order) {
+        return orderProductSnapshots.isEnabled() && order.getProducts() != null;
+    }
+
+    static ProductViewDto mapSnapshotToView(ProductSnapshot from) {
+        return new ProductViewDto(from.getProductId(), from.getProductName(), from.getProductPrice(), CommonUtils.mapEpochMillisToTimestamp(from.getCreateDate()), CommonUtils.mapEpochMillisToTimestamp(from.getUpdateDate()));
+    }
+
+    static OrderViewDto mapEntityToViewWithEmptyProducts(Order from) {
+        return new OrderViewDto(from.getOrderId(), from.getOrderName(), new ArrayList<>(), CommonUtils.mapEpochMillisToTimestamp(from.getCreateDate()), CommonUtils.mapEpochMillisToTimestamp(from.getUpdateDate()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Removes links whose order or product is gone. Deletes take the links along, but a link added by a
+ * task that was queued before the delete ran is left behind. The sweep walks the links in batches,
+ * deletes the orphans of a batch with one deleteMany and paces itself to a number of links per second,
+ * so it stays in the background of the request traffic. Links younger than the grace period are
+ * skipped, their order or product may still be waiting to be inserted.
+ */
+@Slf4j
+@Component
+public class OrphanLinkSweeper {
+
+    private final MongoOperations mongoOperations;
+    private final int batchSize;
+    private final int linksPerSecond;
+    private final long graceSeconds;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OrphanLinkSweeper(MongoOperations mongoOperations,
+                             @Value("${orphanLinkSweepBatchSize}") int batchSize,
+                             @Value("${orphanLinkSweepLinksPerSecond}") int linksPerSecond,
+                             @Value("${orphanLinkSweepGraceSeconds}") long graceSeconds,
+                             @Value("${orphanLinkSweepIntervalSeconds}") long intervalSeconds) {
+        this.mongoOperations = mongoOperations;
+        this.batchSize = batchSize;
+        this.linksPerSecond = linksPerSecond;
+        this.graceSeconds = graceSeconds;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("orphan-link-sweeper").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::sweepSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Walks all links once. Returns the number of links deleted.
+     */
+    public long sweep() {
+        ObjectId before = new ObjectId(new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(graceSeconds)));
+        long deleted = 0;
+        String after = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            long started = System.nanoTime();
+            Criteria range = Criteria.where("id").lt(before);
+            if (after != null) {
+                range.gt(new ObjectId(after));
+            }
+            Query query = Query.query(range).with(Sort.by("id")).limit(batchSize);
+            List<LinkOrderProducts> links = mongoOperations.find(query, LinkOrderProducts.class);
+            if (links.isEmpty()) {
+                break;
+            }
+
+            Set<String> orderIds = existing(links.stream().map(LinkOrderProducts::getOrderId).toList(), "orderId", Order.class, Order::getOrderId);
+            Set<String> productIds = existing(links.stream().map(LinkOrderProducts::getProductId).toList(), "productId", Product.class, Product::getProductId);
+            List<String> orphans = links.stream()
+                    .filter(link -> !orderIds.contains(link.getOrderId()) || !productIds.contains(link.getProductId()))
+                    .map(LinkOrderProducts::getId)
+                    .toList();
+            if (!orphans.isEmpty()) {
+                deleted += mongoOperations.remove(Query.query(Criteria.where("id").in(orphans)), LinkOrderProducts.class).getDeletedCount();
+            }
+            after = links.get(links.size() - 1).getId();
+            pace(links.size(), started);
+        }
+        return deleted;
+    }
+
+    private <T> Set<String> existing(Collection<String> ids, String idField, Class<T> type, Function<T, String> id) {
+        Query query = Query.query(Criteria.where(idField).in(new HashSet<>(ids)));
+        query.fields().include(idField);
+        return mongoOperations.find(query, type).stream().map(id).collect(Collectors.toSet());
+    }
+
+    private void pace(int links, long started) {
+        long budget = TimeUnit.SECONDS.toNanos(links) / linksPerSecond;
+        long left = budget - (System.nanoTime() - started);
+        if (left > 0) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            long deleted = sweep();
+            if (deleted > 0) {
+                log.info("Orphan link sweep deleted {} links", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Orphan link sweep failed", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.OrdersRepository;
+import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.repo.entities.OutboxEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies {@link OutboxEntry} actions. Deletes run through here in every consistency engine, the
+ * snapshot actions only when an entry is replayed.
+ */
+@Component
+public class OutboxActions {
+
+    private final OrdersRepository ordersRepository;
+    private final ProductsRepository productsRepository;
+    private final LinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final OrderProductSnapshots orderProductSnapshots;
+
+    @Autowired
+    public OutboxActions(OrdersRepository ordersRepository,
+                         ProductsRepository productsRepository,
+                         LinksOrdersProductsRepository linksOrdersProductsRepository,
+                         OrderProductSnapshots orderProductSnapshots) {
+        this.ordersRepository = ordersRepository;
+        this.productsRepository = productsRepository;
+        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
+        this.orderProductSnapshots = orderProductSnapshots;
+    }
+
+    public void apply(OutboxEntry entry) {
+        List<String> ids = entry.getIds();
+        switch (entry.getAction()) {
+            case DELETE_ORDERS -> {
+                ordersRepository.deleteAllById(ids);
+                linksOrdersProductsRepository.deleteByOrderIdIn(ids);
+            }
+            case DELETE_PRODUCTS -> {
+                productsRepository.deleteAllById(ids);
+                linksOrdersProductsRepository.deleteByProductIdIn(ids);
+                orderProductSnapshots.removeEverywhere(ids);
+            }
+            case REBUILD_SNAPSHOTS -> {
+                if (orderProductSnapshots.isEnabled()) {
+                    ids.forEach(orderProductSnapshots::rebuild);
+                }
+            }
+            case REFRESH_SNAPSHOTS -> {
+                if (orderProductSnapshots.isEnabled()) {
+                    productsRepository.findAllById(ids).forEach(orderProductSnapshots::refresh);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.entities.OutboxEntry;
+import com.demo.orders.services.executors.OrderedTaskManager;
+import com.demo.orders.services.executors.TaskExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the outbox entries of tasks that were cut off, while consistencyEngine is OUTBOX. Entries
+ * younger than the relay delay may belong to tasks still running and are left alone. A replay is a
+ * keyed task of the ids of the entry, so it queues behind the tasks already submitted for them and
+ * holds every one of those keys until it is applied. An add or remove submitted for an order while its
+ * snapshots are rebuilt runs after the rebuild.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final MongoOperations mongoOperations;
+    private final OutboxActions outboxActions;
+    private final TransactionalInvoker transactionalInvoker;
+    private final OrderedTaskManager orderedTaskManager;
+    private final TaskExecutor deleteLane;
+    private final int batchSize;
+    private final long delaySeconds;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OutboxRelay(MongoOperations mongoOperations,
+                       OutboxActions outboxActions,
+                       TransactionalInvoker transactionalInvoker,
+                       TaskLanes taskLanes,
+                       @Value("${ordersReadBatchSize}") int batchSize,
+                       @Value("${outboxRelayDelaySeconds}") long delaySeconds,
+                       @Value("${outboxRelayIntervalSeconds}") long intervalSeconds) {
+        this.mongoOperations = mongoOperations;
+        this.outboxActions = outboxActions;
+        this.transactionalInvoker = transactionalInvoker;
+        this.orderedTaskManager = taskLanes.getOrderedTaskManager();
+        this.deleteLane = taskLanes.getDeleteLane();
+        this.batchSize = batchSize;
+        this.delaySeconds = delaySeconds;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (transactionalInvoker.getEngine() != ConsistencyEngine.OUTBOX) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("outbox-relay").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::relaySafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Replays every entry older than the relay delay and removes it once applied. Returns the number
+     * of entries replayed, failed ones are tried again on the next pass.
+     */
+    public int relay() {
+        long recordedBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(delaySeconds);
+        int replayed = 0;
+        String after = null;
+        while (true) {
+            // ObjectId ids follow the order entries were recorded in
+            Query query = Query.query(Criteria.where("createDate").lte(recordedBefore)).with(Sort.by("id")).limit(batchSize);
+            if (after != null) {
+                query.addCriteria(Criteria.where("id").gt(new ObjectId(after)));
+            }
+            List<OutboxEntry> entries = mongoOperations.find(query, OutboxEntry.class);
+            if (entries.isEmpty()) {
+                return replayed;
+            }
+            List<CompletableFuture<Void>> replays = new ArrayList<>(entries.size());
+            for (OutboxEntry entry : entries) {
+                replays.add(orderedTaskManager.submitTask(entry.getIds(), deleteLane, null, () -> {
+                    outboxActions.apply(entry);
+                    mongoOperations.remove(entry);
+                }));
+            }
+            // a failed replay keeps its entry for the next pass
+            CompletableFuture.allOf(replays.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            replayed += (int) replays.stream().filter(replay -> !replay.isCompletedExceptionally()).count();
+            after = entries.get(entries.size() - 1).getId();
+        }
+    }
+
+    private void relaySafely() {
+        try {
+            int replayed = relay();
+            if (replayed > 0) {
+                log.info("Outbox relay replayed {} entries", replayed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+}
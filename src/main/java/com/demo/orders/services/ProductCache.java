@@ -0,0 +1,128 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.repo.entities.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache of products by id, absent products are remembered for a shorter time. Entries are
+ * invalidated by the product write tasks once their write is done.
+ * <p>
+ * A single get loads under the lock of its key, an invalidation waits for it. A bulk load reads outside
+ * of any lock, so it remembers the invalidation generation of every key before reading and only caches
+ * what it read for keys that were not invalidated in between. Generations are kept per stripe of keys,
+ * an unrelated invalidation in the same stripe costs a reload at worst.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductsRepository productsRepository;
+    private static final int STRIPES = 1024;
+
+    private final Cache<String, Optional<Product>> cache;
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    @Autowired
+    public ProductCache(ProductsRepository productsRepository,
+                        @Value("${productCacheMaxSize}") long maxSize,
+                        @Value("${productCacheTtlSeconds}") long ttlSeconds,
+                        @Value("${productCacheNegativeTtlSeconds}") long negativeTtlSeconds) {
+        this.productsRepository = productsRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PresenceExpiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "products");
+    }
+
+    public Optional<Product> get(String id) {
+        return cache.get(id, productsRepository::findById);
+    }
+
+    public List<Product> getAll(List<String> ids) {
+        Map<String, Optional<Product>> found = new HashMap<>(cache.getAllPresent(ids));
+        List<String> missing = ids.stream().filter(id -> !found.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            found.putAll(loadAll(missing));
+        }
+        List<Product> products = new ArrayList<>(found.size());
+        for (String id : ids) {
+            Optional<Product> product = found.get(id);
+            if (product != null && product.isPresent()) {
+                products.add(product.get());
+            }
+        }
+        return products;
+    }
+
+    public void invalidate(String id) {
+        // the generation first, a bulk load that has not cached the key yet will not do so any more
+        invalidations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll(Collection<String> ids) {
+        ids.forEach(id -> invalidations.incrementAndGet(stripe(id)));
+        cache.invalidateAll(ids);
+    }
+
+    private Map<String, Optional<Product>> loadAll(List<String> missing) {
+        long[] generations = new long[missing.size()];
+        for (int i = 0; i < missing.size(); i++) {
+            generations[i] = invalidations.get(stripe(missing.get(i)));
+        }
+        Map<String, Optional<Product>> loaded = new HashMap<>();
+        for (String id : missing) {
+            loaded.put(id, Optional.empty());
+        }
+        for (Product product : productsRepository.findByProductIdIn(missing)) {
+            loaded.put(product.getProductId(), Optional.of(product));
+        }
+        for (int i = 0; i < missing.size(); i++) {
+            long generation = generations[i];
+            Optional<Product> value = loaded.get(missing.get(i));
+            // checked under the lock of the key, an invalidation after the check removes the entry again
+            cache.asMap().compute(missing.get(i), (id, current) ->
+                    current != null || invalidations.get(stripe(id)) != generation ? current : value);
+        }
+        return loaded;
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private record PresenceExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<Product>> {
+        @Override
+        public long expireAfterCreate(String key, Optional<Product> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<Product> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<Product> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import com.demo.orders.services.executors.OrderedTaskManager;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Repairs embedded product snapshots that drifted from the links collection, for example after a
+ * product update raced with an add of the same product. On startup it first backfills the orders
+ * written before snapshots were switched on, then walks all orders periodically. Repairs are keyed
+ * tasks of the order, so they queue behind the adds and removes of that order instead of racing them.
+ */
+@Slf4j
+@Component
+public class ProductSnapshotReconciler {
+
+    private final MongoOperations mongoOperations;
+    private final OrderProductSnapshots orderProductSnapshots;
+    private final OrderedTaskManager orderedTaskManager;
+    private final IdStorage idStorage;
+    private final int batchSize;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ProductSnapshotReconciler(MongoOperations mongoOperations,
+                                     OrderProductSnapshots orderProductSnapshots,
+                                     TaskLanes taskLanes,
+                                     IdStorage idStorage,
+                                     @Value("${ordersReadBatchSize}") int batchSize,
+                                     @Value("${productSnapshotReconcileIntervalSeconds}") long intervalSeconds) {
+        this.mongoOperations = mongoOperations;
+        this.orderProductSnapshots = orderProductSnapshots;
+        this.orderedTaskManager = taskLanes.getOrderedTaskManager();
+        this.idStorage = idStorage;
+        this.batchSize = batchSize;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!orderProductSnapshots.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("snapshot-reconciler").daemon().factory());
+        scheduler.execute(() -> runSafely("Backfill", this::backfill));
+        scheduler.scheduleWithFixedDelay(() -> runSafely("Reconciliation", this::reconcile), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds the snapshots of every order that has none yet. Returns the number of orders written.
+     */
+    public int backfill() {
+        return walk(true);
+    }
+
+    /**
+     * Compares every order with its links and rebuilds the ones that differ. Returns the number of
+     * orders repaired.
+     */
+    public int reconcile() {
+        return walk(false);
+    }
+
+    private int walk(boolean missingOnly) {
+        int repaired = 0;
+        String after = null;
+        while (true) {
+            Query query = new Query().with(Sort.by("orderId")).limit(batchSize);
+            if (after != null) {
+                query.addCriteria(Criteria.where("orderId").gt(idStorage.toStored(after)));
+            }
+            if (missingOnly) {
+                query.addCriteria(Criteria.where("products").exists(false));
+            }
+            query.fields().include("orderId").include("products");
+            List<Order> orders = mongoOperations.find(query, Order.class);
+            if (orders.isEmpty()) {
+                return repaired;
+            }
+
+            Map<String, List<ProductSnapshot>> expected = orderProductSnapshots.expected(orders.stream().map(Order::getOrderId).toList());
+            List<CompletableFuture<Void>> repairs = new ArrayList<>();
+            for (Order order : orders) {
+                if (!OrderProductSnapshots.same(order.getProducts(), expected.getOrDefault(order.getOrderId(), List.of()))) {
+                    repairs.add(orderedTaskManager.submitTask(order.getOrderId(), () -> orderProductSnapshots.rebuild(order.getOrderId())));
+                }
+            }
+            // one batch in flight at a time keeps the walk from flooding the ordered lane
+            CompletableFuture.allOf(repairs.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            repaired += repairs.size();
+            after = orders.get(orders.size() - 1).getOrderId();
+        }
+    }
+
+    private void runSafely(String name, IntSupplier pass) {
+        try {
+            int repaired = pass.getAsInt();
+            if (repaired > 0) {
+                log.info("{} of product snapshots rewrote {} orders", name, repaired);
+            }
+        } catch (RuntimeException e) {
+            log.error("{} of product snapshots failed", name, e);
+        }
+    }
+}
@@ -1,65 +1,127 @@
 package com.demo.orders.services;
 
 import com.demo.orders.CommonUtils;
+import com.demo.orders.dtos.BulkItemStatus;
+import com.demo.orders.dtos.BulkResultDto;
 import com.demo.orders.dtos.ProductDto;
 import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
 import com.demo.orders.exceptions.ProductNotFoundException;
-import com.demo.orders.repo.LinksOrdersProductsRepository;
-import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.repo.entities.OutboxEntry;
 import com.demo.orders.repo.entities.Product;
+import com.demo.orders.services.executors.MicroBatcher;
 import com.demo.orders.services.executors.OrderedTaskManager;
+import com.demo.orders.services.executors.TaskExecutor;
 import com.demo.orders.services.executors.TaskManager;
+import com.demo.orders.services.executors.UpdateCoalescer;
+import com.demo.orders.services.ids.IdGenerator;
 import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 public class ProductsService {
 
-    private final ProductsRepository productsRepository;
     private final TaskManager taskManager;
+    private final MicroBatcher<Product> productInserts;
+    private final ConcurrentMap<String, CompletableFuture<Void>> pendingInserts = new ConcurrentHashMap<>();
     private final OrderedTaskManager orderedTaskManager;
+    private final TaskExecutor deleteLane;
+    private final UpdateCoalescer<Map<String, Object>> productUpdates;
+    private final MongoOperations mongoOperations;
+    private final ProductCache productCache;
+    private final OrderProductSnapshots orderProductSnapshots;
     private final TransactionalInvoker transactionalInvoker;
-    private final LinksOrdersProductsRepository linksOrdersProductsRepository;
+    private final OperationRegistry operationRegistry;
+    private final IdGenerator idGenerator;
 
     @Autowired
-    public ProductsService(ProductsRepository productsRepository,
-                           LinksOrdersProductsRepository linksOrdersProductsRepository,
-                           TransactionalInvoker transactionalInvoker,
-                           @Value("${nonConcurrentTaskThreadsNumber}") int nonConTaskThreadsNum,
-                           @Value("${concurrentTaskThreadsNumber}") int conTaskThreadsNum) {
-        this.productsRepository = productsRepository;
+    public ProductsService(TransactionalInvoker transactionalInvoker,
+                           OperationRegistry operationRegistry,
+                           MongoOperations mongoOperations,
+                           TaskLanes taskLanes,
+                           ProductCache productCache,
+                           OrderProductSnapshots orderProductSnapshots,
+                           IdGenerator idGenerator,
+                           @Value("${createBatchMaxSize}") int createBatchMaxSize,
+                           @Value("${createBatchLingerMillis}") long createBatchLingerMillis) {
         this.transactionalInvoker = transactionalInvoker;
-        this.linksOrdersProductsRepository = linksOrdersProductsRepository;
-        this.taskManager = new TaskManager(nonConTaskThreadsNum);
-        this.orderedTaskManager = new OrderedTaskManager(conTaskThreadsNum);
+        this.operationRegistry = operationRegistry;
+        this.mongoOperations = mongoOperations;
+        this.productCache = productCache;
+        this.orderProductSnapshots = orderProductSnapshots;
+        this.idGenerator = idGenerator;
+        this.taskManager = new TaskManager(taskLanes.getCreateLane());
+        this.orderedTaskManager = taskLanes.getOrderedTaskManager();
+        this.deleteLane = taskLanes.getDeleteLane();
+        this.productInserts = new MicroBatcher<>("products-create", createBatchMaxSize, createBatchLingerMillis, this::insertBatch);
+        this.productUpdates = new UpdateCoalescer<>(orderedTaskManager, UpdateCoalescer::mergeFields, this::writeProductUpdate);
     }
 
     @PreDestroy
     public void cleanUp() {
-        taskManager.shutdown();
-        orderedTaskManager.shutdown();
+        productInserts.shutdown();
     }
 
-    public String createProduct(ProductDto productDto) {
-        String generatedProductId = UUID.randomUUID().toString();
-        taskManager.submitCreateTask(() -> transactionalInvoker.invokeTransactional(() -> {
-            Product product = mapDtoToEntity(productDto, generatedProductId);
-            productsRepository.save(product);
-        }));
-        return generatedProductId;
+    public SubmittedOperationDto createProduct(ProductDto productDto) {
+        String generatedProductId = idGenerator.newId();
+        Product product = mapDtoToEntity(productDto, generatedProductId);
+        CompletableFuture<Void> future = productInserts.submit(product);
+        trackInserts(List.of(generatedProductId), future);
+        return submitted(generatedProductId, future);
+    }
+
+    public BulkResultDto createProducts(List<ProductDto> productDtos) {
+        BulkReport report = new BulkReport();
+        List<Product> products = new ArrayList<>(productDtos.size());
+        for (ProductDto productDto : productDtos) {
+            String generatedProductId = idGenerator.newId();
+            products.add(mapDtoToEntity(productDto, generatedProductId));
+            report.accept(generatedProductId);
+        }
+        CompletableFuture<Void> future = insertBatch(products).thenAccept(failures -> BatchInserts.requireAll(failures, products.size()));
+        trackInserts(report.accepted(), future);
+        return report.toDto(operationRegistry.register(future));
+    }
+
+    private CompletableFuture<Map<Integer, Throwable>> insertBatch(List<Product> products) {
+        Map<Integer, Throwable> failures = new HashMap<>();
+        return taskManager.submitCreateTask(() -> {
+            failures.putAll(BatchInserts.insert(transactionalInvoker, mongoOperations, products, Product.class));
+            productCache.invalidateAll(products.stream().map(Product::getProductId).toList());
+        }).thenApply(done -> failures);
+    }
+
+    // a delete may arrive while the product still waits to be inserted, it has to run after the insert
+    private void trackInserts(List<String> ids, CompletableFuture<Void> future) {
+        ids.forEach(id -> pendingInserts.put(id, future));
+        future.whenComplete((result, error) -> ids.forEach(id -> pendingInserts.remove(id, future)));
     }
 
     public ProductViewDto getProductById(String id) {
         return mapEntityToViewDto(getProductEntityById(id));
     }
 
-    private Product getProductEntityById(String id) {
-        return productsRepository.findById(id)
+    Product getProductEntityById(String id) {
+        return productCache.get(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
     }
 
@@ -67,41 +129,85 @@ public class ProductsService {
         if (ids.isEmpty()) {
             return List.of();
         }
-        List<Product> products = productsRepository.findByProductIdIn(ids);
+        List<Product> products = productCache.getAll(ids);
         return products.stream().map(ProductsService::mapEntityToViewDto).toList();
     }
 
-    public String updateProduct(String id, ProductDto productDto) {
+    public SubmittedOperationDto updateProduct(String id, ProductDto productDto) {
 
         Product product = getProductEntityById(id);
 
-        Runnable r = () -> transactionalInvoker.invokeTransactional(() -> {
-            Product p = getProductEntityById(id);
-            if (productDto.getProductName() != null) {
-                if (productDto.getProductName().isEmpty()) {
-                    p.setProductName(null);
-                } else {
-                    p.setProductName(productDto.getProductName());
-                }
-            }
-            if (productDto.getProductPrice() != null) {
-                p.setProductPrice(productDto.getProductPrice());
-            }
-            p.setUpdateDate(System.currentTimeMillis());
-            productsRepository.save(p);
-        });
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (productDto.getProductName() != null) {
+            fields.put("productName", productDto.getProductName().isEmpty() ? null : productDto.getProductName());
+        }
+        if (productDto.getProductPrice() != null) {
+            fields.put("productPrice", productDto.getProductPrice());
+        }
+
+        return submitted(product.getProductId(), productUpdates.submit(product.getProductId(), fields));
+    }
 
-        orderedTaskManager.submitTask(product.getProductId(), r);
+    private void writeProductUpdate(String id, Map<String, Object> fields) {
+        transactionalInvoker.invokeTransactional(() -> {
+            long updateDate = System.currentTimeMillis();
+            Update update = new Update();
+            fields.forEach(update::set);
+            update.set("updateDate", updateDate);
+            mongoOperations.updateFirst(Query.query(Criteria.where("productId").is(id)), update, Product.class);
+            orderProductSnapshots.refresh(id, fields, updateDate);
+        }, orderProductSnapshots.isEnabled() ? OutboxEntry.of(OutboxEntry.Action.REFRESH_SNAPSHOTS, List.of(id)) : null);
+        productCache.invalidate(id);
+    }
+
+    public SubmittedOperationDto deleteProduct(String id) {
+        productUpdates.seal(id);
+        CompletableFuture<Void> future = orderedTaskManager.submitTask(id, deleteLane, pendingInserts.get(id), () -> deleteInTask(List.of(id)));
+        return submitted(id, future);
+    }
+
+    public BulkResultDto deleteProducts(List<String> ids) {
+        BulkReport report = BulkReport.ofIds(ids);
+        report.rejectMissing(findExistingIds(report.accepted()), BulkItemStatus.NOT_FOUND, "Product not found");
+        List<String> accepted = report.accepted();
+        if (accepted.isEmpty()) {
+            return report.toDto(null);
+        }
+        sealUpdates(accepted);
+        CompletableFuture<?>[] inserts = accepted.stream().map(pendingInserts::get).filter(Objects::nonNull).toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> future = orderedTaskManager.submitTask(accepted, deleteLane, CompletableFuture.allOf(inserts), () -> deleteInTask(accepted));
+        return report.toDto(operationRegistry.register(future));
+    }
+
+    /**
+     * Has to be called before submitting a task that deletes the products, so queued updates do not
+     * take later updates along behind the delete.
+     */
+    void sealUpdates(Collection<String> ids) {
+        ids.forEach(productUpdates::seal);
+    }
+
+    /**
+     * Deletes the products with their links and snapshots. Runs inside a task that holds the keys of
+     * the products, other services use it to delete products as part of their own task.
+     */
+    void deleteInTask(List<String> ids) {
+        transactionalInvoker.invokeTransactional(OutboxEntry.of(OutboxEntry.Action.DELETE_PRODUCTS, ids));
+        productCache.invalidateAll(ids);
+    }
 
-        return product.getProductId();
+    /**
+     * Ids of stored products, plus the ones still waiting to be inserted. Misses cost one $in query.
+     */
+    Set<String> findExistingIds(List<String> ids) {
+        Set<String> found = new HashSet<>();
+        productCache.getAll(ids).forEach(product -> found.add(product.getProductId()));
+        ids.stream().filter(pendingInserts::containsKey).forEach(found::add);
+        return found;
     }
 
-    public void deleteProduct(String id) {
-        orderedTaskManager.submitTask(id,
-                () -> transactionalInvoker.invokeTransactional(() -> {
-                    productsRepository.deleteById(id);
-                    linksOrdersProductsRepository.deleteByProductId(id);
-                }));
+    private SubmittedOperationDto submitted(String id, CompletableFuture<Void> future) {
+        return new SubmittedOperationDto(id, operationRegistry.register(future));
     }
 
     private static Product mapDtoToEntity(ProductDto dto, String id) {
@@ -109,7 +215,7 @@ public class ProductsService {
         return new Product(id, dto.getProductName(), dto.getProductPrice(), currTime, currTime);
     }
 
-    private static ProductViewDto mapEntityToViewDto(Product from) {
+    static ProductViewDto mapEntityToViewDto(Product from) {
         return new ProductViewDto(from.getProductId(), from.getProductName(), from.getProductPrice(), CommonUtils.mapEpochMillisToTimestamp(from.getCreateDate()), CommonUtils.mapEpochMillisToTimestamp(from.getUpdateDate()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.demo.orders.services;
+
+import com.demo.orders.services.executors.ExecutionMode;
+import com.demo.orders.services.executors.OrderedTaskManager;
+import com.demo.orders.services.executors.QueueLimits;
+import com.demo.orders.services.executors.RejectionPolicy;
+import com.demo.orders.services.executors.SharedTaskPool;
+import com.demo.orders.services.executors.TaskExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * The one task pool of the application. Services submit to named lanes instead of keeping pools of
+ * their own: creates, ordered updates and deletes. Keyed tasks of every lane share one
+ * {@link OrderedTaskManager}, so a delete still runs after the updates queued before it for the same key.
+ */
+@Slf4j
+@Component
+public class TaskLanes {
+    public static final String CREATE = "create";
+    public static final String ORDERED_UPDATE = "ordered-update";
+    public static final String DELETE = "delete";
+
+    private final SharedTaskPool pool;
+    private final TaskExecutor createLane;
+    private final TaskExecutor orderedUpdateLane;
+    private final TaskExecutor deleteLane;
+    private final OrderedTaskManager orderedTaskManager;
+    private final Duration shutdownTimeout;
+
+    public TaskLanes(@Value("${taskPoolThreadsNumber}") int poolThreadsNum,
+                     @Value("${virtualTaskThreadsNumber}") int virtualTaskThreadsNum,
+                     @Value("${spring.threads.virtual.enabled}") boolean virtualThreads,
+                     @Value("${taskRejectionPolicy}") RejectionPolicy taskRejectionPolicy,
+                     @Value("${taskOfferTimeoutMillis}") long taskOfferTimeoutMillis,
+                     @Value("${createLaneCapacity}") int createLaneCapacity,
+                     @Value("${createLaneWeight}") int createLaneWeight,
+                     @Value("${orderedUpdateLaneCapacity}") int orderedUpdateLaneCapacity,
+                     @Value("${orderedUpdateLaneWeight}") int orderedUpdateLaneWeight,
+                     @Value("${deleteLaneCapacity}") int deleteLaneCapacity,
+                     @Value("${deleteLaneWeight}") int deleteLaneWeight,
+                     @Value("${taskShutdownTimeoutSeconds}") long shutdownTimeoutSeconds) {
+        ExecutionMode mode = ExecutionMode.of(virtualThreads);
+        this.pool = new SharedTaskPool("tasks", virtualThreads ? virtualTaskThreadsNum : poolThreadsNum, mode);
+        this.createLane = pool.addLane(CREATE, createLaneWeight,
+                new QueueLimits(createLaneCapacity, taskRejectionPolicy, taskOfferTimeoutMillis));
+        this.orderedUpdateLane = pool.addLane(ORDERED_UPDATE, orderedUpdateLaneWeight,
+                new QueueLimits(orderedUpdateLaneCapacity, taskRejectionPolicy, taskOfferTimeoutMillis));
+        this.deleteLane = pool.addLane(DELETE, deleteLaneWeight,
+                new QueueLimits(deleteLaneCapacity, taskRejectionPolicy, taskOfferTimeoutMillis));
+        this.orderedTaskManager = new OrderedTaskManager(ORDERED_UPDATE, orderedUpdateLane);
+        this.shutdownTimeout = Duration.ofSeconds(shutdownTimeoutSeconds);
+    }
+
+    // the services depend on this bean, so their batchers have already flushed into the lanes by now
+    @PreDestroy
+    public void cleanUp() {
+        if (!pool.drain(shutdownTimeout)) {
+            log.warn("Tasks did not finish within {}, create: {}, ordered-update: {}, delete: {} still pending",
+                    shutdownTimeout, createLane.pendingTasks(), orderedUpdateLane.pendingTasks(), deleteLane.pendingTasks());
+        }
+        pool.shutdown();
+    }
+
+    public TaskExecutor getCreateLane() {
+        return createLane;
+    }
+
+    public TaskExecutor getOrderedUpdateLane() {
+        return orderedUpdateLane;
+    }
+
+    public TaskExecutor getDeleteLane() {
+        return deleteLane;
+    }
+
+    public OrderedTaskManager getOrderedTaskManager() {
+        return orderedTaskManager;
+    }
+}
@@ -1,13 +1,123 @@
 package com.demo.orders.services;
 
+import com.demo.orders.repo.entities.OutboxEntry;
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the writes of one task under the engine picked by consistencyEngine. The transaction manager
+ * is kept to this class rather than registered as a bean, so @Transactional stays without effect
+ * elsewhere.
+ */
+@Slf4j
 @Component
 public class TransactionalInvoker {
+    private static final long RETRY_BACKOFF_MILLIS = 5;
+
+    private final ConsistencyEngine engine;
+    private final MongoOperations mongoOperations;
+    private final OutboxActions outboxActions;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Counter retries;
+
+    @Autowired
+    public TransactionalInvoker(MongoDatabaseFactory mongoDatabaseFactory,
+                                MongoOperations mongoOperations,
+                                OutboxActions outboxActions,
+                                @Value("${consistencyEngine}") ConsistencyEngine engine,
+                                @Value("${transactionMaxAttempts}") int maxAttempts) {
+        this(engine == ConsistencyEngine.TRANSACTIONS ? new MongoTransactionManager(mongoDatabaseFactory) : null,
+                mongoOperations, outboxActions, engine, maxAttempts);
+    }
+
+    TransactionalInvoker(PlatformTransactionManager transactionManager,
+                         MongoOperations mongoOperations,
+                         OutboxActions outboxActions,
+                         ConsistencyEngine engine,
+                         int maxAttempts) {
+        this.engine = engine;
+        this.mongoOperations = mongoOperations;
+        this.outboxActions = outboxActions;
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.retries = Counter.builder("transactions.retries").register(Metrics.globalRegistry);
+    }
+
+    public ConsistencyEngine getEngine() {
+        return engine;
+    }
 
-    @Transactional
     public void invokeTransactional(Runnable runnable) {
-        runnable.run();
+        invokeTransactional(runnable, null);
+    }
+
+    /**
+     * Applies the entry, see {@link OutboxActions}.
+     */
+    public void invokeTransactional(OutboxEntry entry) {
+        invokeTransactional(() -> outboxActions.apply(entry), entry);
+    }
+
+    /**
+     * {@code recovery} is what brings the data in line again if the runnable is cut off midway, null
+     * when the runnable writes a single document or a single bulk. It is only recorded by the OUTBOX
+     * engine, the runnable does all the writing in every engine.
+     */
+    public void invokeTransactional(Runnable runnable, OutboxEntry recovery) {
+        switch (engine) {
+            case NONE -> runnable.run();
+            case TRANSACTIONS -> inTransaction(runnable);
+            case OUTBOX -> {
+                if (recovery == null) {
+                    runnable.run();
+                    return;
+                }
+                // left in place when the runnable fails, OutboxRelay picks it up
+                mongoOperations.insert(recovery);
+                runnable.run();
+                mongoOperations.remove(recovery);
+            }
+        }
+    }
+
+    private void inTransaction(Runnable runnable) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> runnable.run());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                retries.increment();
+                log.debug("Retrying transaction after a transient error, attempt {}", attempt, e);
+                // write conflicts clear up once the other transaction is done, spread the retries
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(1, RETRY_BACKOFF_MILLIS * attempt + 1)));
+            }
+        }
+    }
+
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
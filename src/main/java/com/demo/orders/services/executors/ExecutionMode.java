@@ -0,0 +1,18 @@
+package com.demo.orders.services.executors;
+
+import java.util.concurrent.ThreadFactory;
+
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    public static ExecutionMode of(boolean virtualThreads) {
+        return virtualThreads ? VIRTUAL : PLATFORM;
+    }
+
+    ThreadFactory threadFactory(String name) {
+        return this == VIRTUAL
+                ? Thread.ofVirtual().name(name + "-", 0).factory()
+                : Thread.ofPlatform().name(name + "-", 0).factory();
+    }
+}
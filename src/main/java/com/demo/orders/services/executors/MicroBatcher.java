@@ -0,0 +1,113 @@
+package com.demo.orders.services.executors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects submitted items and hands them to the flusher in one batch once {@code maxBatchSize} items
+ * are pending or the oldest pending item has waited {@code lingerMillis}, whichever comes first. The
+ * flusher reports the items that failed by their index in the batch, every other item completes. A
+ * flush that fails as a whole fails every item.
+ */
+@Slf4j
+public class MicroBatcher<T> {
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final Function<List<T>, CompletableFuture<Map<Integer, Throwable>>> flusher;
+    private final ScheduledExecutorService timer;
+    private List<Pending<T>> pending;
+    private ScheduledFuture<?> lingerFlush;
+
+    public MicroBatcher(String name, int maxBatchSize, long lingerMillis, Function<List<T>, CompletableFuture<Map<Integer, Throwable>>> flusher) {
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.flusher = flusher;
+        this.pending = new ArrayList<>(maxBatchSize);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Void> submit(T item) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        List<Pending<T>> batch = null;
+        synchronized (this) {
+            pending.add(new Pending<>(item, future));
+            if (pending.size() >= maxBatchSize) {
+                batch = takePending();
+            } else if (pending.size() == 1) {
+                lingerFlush = timer.schedule(this::flushPending, lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            // a rejected flush reaches the caller that filled the batch, the other callers see it on their futures
+            flush(batch);
+        }
+        return future;
+    }
+
+    private synchronized List<Pending<T>> takePending() {
+        List<Pending<T>> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        if (lingerFlush != null) {
+            lingerFlush.cancel(false);
+            lingerFlush = null;
+        }
+        return batch;
+    }
+
+    private void flushPending() {
+        List<Pending<T>> batch = takePending();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flush(batch);
+        } catch (RuntimeException e) {
+            log.error("Batch of {} items was not flushed", batch.size(), e);
+        }
+    }
+
+    private void flush(List<Pending<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T> p : batch) {
+            items.add(p.item());
+        }
+        CompletableFuture<Map<Integer, Throwable>> result;
+        try {
+            result = flusher.apply(items);
+        } catch (RuntimeException e) {
+            batch.forEach(p -> p.future().completeExceptionally(e));
+            throw e;
+        }
+        result.whenComplete((failures, error) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                Throwable failure = error != null ? error : failures.get(i);
+                if (failure == null) {
+                    batch.get(i).future().complete(null);
+                } else {
+                    batch.get(i).future().completeExceptionally(failure);
+                }
+            }
+        });
+    }
+
+    public void shutdown() {
+        flushPending();
+        timer.shutdown();
+    }
+
+    private record Pending<T>(T item, CompletableFuture<Void> future) {
+    }
+}
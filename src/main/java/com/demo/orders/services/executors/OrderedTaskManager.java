@@ -1,39 +1,184 @@
 package com.demo.orders.services.executors;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Tasks of the same key run strictly one after another in submission order, each key has at most one
+ * active drainer and pool threads never wait for a particular key. Every task names the lane it runs
+ * on, a key whose next task belongs to another lane hands its drain over to that lane.
+ */
 public class OrderedTaskManager {
+    static final int DRAIN_BATCH_SIZE = 64;
+    private static final Runnable NO_OP = () -> {
+    };
+
+    private final TaskExecutor defaultLane;
+    private final boolean ownsLane;
     private final ConcurrentMap<String, OrderedTaskQueue> orderQueues = new ConcurrentHashMap<>();
-    private final ExecutorService executorService;
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    // multi-key tasks enqueue their barriers one task at a time, so two of them meet in the same order on every key
+    private final Object multiKeyEnqueue = new Object();
+
+    public OrderedTaskManager(String name, int numberOfThreads, QueueLimits limits) {
+        this(name, numberOfThreads, limits, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * A stand-alone manager running on a lane with a pool of its own.
+     */
+    public OrderedTaskManager(String name, int numberOfThreads, QueueLimits limits, ExecutionMode mode) {
+        this(name, new TaskExecutor(name, numberOfThreads, limits, mode), true);
+    }
+
+    public OrderedTaskManager(String name, TaskExecutor defaultLane) {
+        this(name, defaultLane, false);
+    }
 
-    public OrderedTaskManager(int numberOfThreads) {
-        this.executorService = Executors.newFixedThreadPool(numberOfThreads);
+    private OrderedTaskManager(String name, TaskExecutor defaultLane, boolean ownsLane) {
+        this.defaultLane = defaultLane;
+        this.ownsLane = ownsLane;
+        Gauge.builder("tasks.active.keys", this, OrderedTaskManager::activeKeys)
+                .tag("executor", name)
+                .register(Metrics.globalRegistry);
     }
 
-    public void submitTask(String orderId, Runnable task) {
-        OrderedTaskQueue queue = orderQueues.computeIfAbsent(orderId, OrderedTaskQueue::new);
-        queue.submitTask(task);
-        processTasks(queue);
+    public CompletableFuture<Void> submitTask(String orderId, Runnable task) {
+        return submitTask(orderId, defaultLane, null, task);
+    }
+
+    /**
+     * Like {@link #submitTask(String, Runnable)}, but the task and everything queued after it for the
+     * key waits until {@code after} completes. Waiting does not hold a pool thread.
+     */
+    public CompletableFuture<Void> submitTask(String orderId, CompletableFuture<?> after, Runnable task) {
+        return submitTask(orderId, defaultLane, after, task);
+    }
+
+    /**
+     * Runs the task on {@code lane} and takes its capacity from that lane, while keeping it in order
+     * with the other tasks of the key.
+     */
+    public CompletableFuture<Void> submitTask(String orderId, TaskExecutor lane, CompletableFuture<?> after, Runnable task) {
+        lane.acquire();
+        long acceptedAt = System.nanoTime();
+        pendingTasks.incrementAndGet();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable wrapped = () -> lane.run(task, future, acceptedAt, () -> {
+            pendingTasks.decrementAndGet();
+            lane.release();
+        });
+        enqueue(orderId, new OrderedTask(lane, after, wrapped, null));
+        return future;
+    }
+
+    /**
+     * Runs one task for many keys, after the tasks already queued for each of them and after
+     * {@code after}. Every key is held by a barrier from the moment its earlier tasks are done until
+     * the task is, so tasks submitted for those keys later run after it.
+     */
+    public CompletableFuture<Void> submitTask(Collection<String> orderIds, TaskExecutor lane, CompletableFuture<?> after, Runnable task) {
+        lane.acquire();
+        long acceptedAt = System.nanoTime();
+        // counted once, its barriers are not tasks of their own
+        pendingTasks.incrementAndGet();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        List<CompletableFuture<?>> reached = new ArrayList<>(orderIds.size() + 1);
+        synchronized (multiKeyEnqueue) {
+            // a key named twice would wait for its own barrier
+            for (String orderId : new LinkedHashSet<>(orderIds)) {
+                CompletableFuture<Void> keyReached = new CompletableFuture<>();
+                reached.add(keyReached);
+                enqueue(orderId, new OrderedTask(lane, future, NO_OP, keyReached));
+            }
+        }
+        if (after != null) {
+            reached.add(after);
+        }
+        CompletableFuture.allOf(reached.toArray(CompletableFuture[]::new)).whenComplete((result, error) -> lane.execute(() ->
+                lane.run(task, future, acceptedAt, () -> {
+                    pendingTasks.decrementAndGet();
+                    lane.release();
+                })));
+        return future;
     }
 
-    private void processTasks(OrderedTaskQueue queue) {
-        executorService.submit(() -> {
+    private void enqueue(String orderId, OrderedTask task) {
+        while (true) {
+            OrderedTaskQueue queue = orderQueues.computeIfAbsent(orderId, OrderedTaskQueue::new);
+            int pendingBefore = queue.offer(task);
+            if (pendingBefore == OrderedTaskQueue.RETIRED) {
+                // the drainer has just retired this mailbox, help to unlink it and retry with a fresh one
+                orderQueues.remove(orderId, queue);
+                continue;
+            }
+            if (pendingBefore == 0) {
+                task.lane().execute(() -> drain(queue, null, task.lane()));
+            }
+            return;
+        }
+    }
+
+    private void drain(OrderedTaskQueue queue, OrderedTask next, TaskExecutor lane) {
+        for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+            OrderedTask task = next == null ? queue.poll() : next;
+            next = null;
+            if (task.reached() != null) {
+                task.reached().complete(null);
+            }
+            if (task.after() != null && !task.after().isDone()) {
+                // the key stays owned by this drain, it resumes from the dependency callback
+                task.after().whenComplete((result, error) -> task.lane().execute(() -> drain(queue, task, task.lane())));
+                return;
+            }
+            if (task.lane() != lane) {
+                task.lane().execute(() -> drain(queue, task, task.lane()));
+                return;
+            }
+            boolean more = false;
             try {
-                Runnable task = queue.takeTask();
-                task.run();
-                if (queue.isEmpty()) {
-                    orderQueues.remove(queue.getOrderId());
+                task.task().run();
+            } finally {
+                more = queue.complete();
+                if (!more && queue.retire()) {
+                    orderQueues.remove(queue.getOrderId(), queue);
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
             }
-        });
+            if (!more) {
+                return;
+            }
+        }
+        // give other keys a chance, the key stays owned by this drainer while it waits in the lane queue
+        lane.execute(() -> drain(queue, null, lane));
+    }
+
+    public int queueDepth() {
+        return pendingTasks.get();
+    }
+
+    public int activeKeys() {
+        return orderQueues.size();
     }
 
     public void shutdown() {
-        executorService.shutdown();
+        if (ownsLane) {
+            defaultLane.shutdown();
+        }
+    }
+
+    /**
+     * {@code reached} is completed once the tasks queued before this one are done, a multi-key barrier
+     * reports it and then waits for its task in {@code after}.
+     */
+    record OrderedTask(TaskExecutor lane, CompletableFuture<?> after, Runnable task, CompletableFuture<Void> reached) {
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,60 @@
 package com.demo.orders.services.executors;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OrderedTaskQueue {
+    static final int RETIRED = -1;
+
     private final String orderId;
-    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final Queue<OrderedTaskManager.OrderedTask> tasks = new ConcurrentLinkedQueue<>();
+    // offered but not completed tasks, 0 -> 1 elects the drainer, RETIRED closes the queue for good
+    private final AtomicInteger pending = new AtomicInteger();
 
     public OrderedTaskQueue(String orderId) {
         this.orderId = orderId;
     }
 
-    public void submitTask(Runnable task) {
+    // returns the number of pending tasks before this one or RETIRED if the task was not accepted
+    int offer(OrderedTaskManager.OrderedTask task) {
+        int current;
+        do {
+            current = pending.get();
+            if (current == RETIRED) {
+                return RETIRED;
+            }
+        } while (!pending.compareAndSet(current, current + 1));
         tasks.add(task);
+        return current;
+    }
+
+    OrderedTaskManager.OrderedTask poll() {
+        OrderedTaskManager.OrderedTask task;
+        // the producer publishes the counter before the task itself, so the gap is a few instructions long
+        while ((task = tasks.poll()) == null) {
+            Thread.onSpinWait();
+        }
+        return task;
     }
 
-    public Runnable takeTask() throws InterruptedException {
-        return tasks.take();
+    boolean complete() {
+        return pending.decrementAndGet() > 0;
+    }
+
+    boolean retire() {
+        return pending.compareAndSet(0, RETIRED);
     }
 
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        return pending.get() <= 0;
+    }
+
+    public int size() {
+        return Math.max(pending.get(), 0);
     }
 
     public String getOrderId() {
         return orderId;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,4 @@
+package com.demo.orders.services.executors;
+
+public record QueueLimits(int capacity, RejectionPolicy rejectionPolicy, long offerTimeoutMillis) {
+}
@@ -0,0 +1,7 @@
+package com.demo.orders.services.executors;
+
+public enum RejectionPolicy {
+    BLOCK,
+    CALLER_RUNS,
+    REJECT
+}
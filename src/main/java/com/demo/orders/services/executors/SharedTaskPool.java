@@ -0,0 +1,154 @@
+package com.demo.orders.services.executors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One set of worker threads shared by any number of named lanes. Workers pick lanes in a weighted
+ * round robin, so a lane with weight 3 gets three turns for every turn of a lane with weight 1 while
+ * both have work, and an idle lane gives its turns away.
+ */
+@Slf4j
+public class SharedTaskPool {
+    private static final long IDLE_POLL_MILLIS = 10;
+
+    private final List<TaskExecutor> lanes = new CopyOnWriteArrayList<>();
+    // lane indexes repeated by weight, workers walk it with a shared ticket
+    private volatile int[] schedule = new int[0];
+    private final AtomicLong ticket = new AtomicLong();
+    // one permit per queued task, a worker that got a permit is guaranteed to find a task in some lane
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicInteger running = new AtomicInteger();
+    private final ExecutorService workers;
+    private volatile boolean closed;
+
+    public SharedTaskPool(String name, int numberOfThreads, ExecutionMode mode) {
+        this.workers = Executors.newFixedThreadPool(numberOfThreads, mode.threadFactory(name));
+        for (int i = 0; i < numberOfThreads; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Lanes are meant to be added while the application starts, before tasks are submitted.
+     */
+    public TaskExecutor addLane(String laneName, int weight, QueueLimits limits) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Lane weight must be positive: " + laneName);
+        }
+        TaskExecutor lane = new TaskExecutor(this, laneName, limits);
+        register(lane, weight);
+        return lane;
+    }
+
+    synchronized void register(TaskExecutor lane, int weight) {
+        int index = lanes.size();
+        lanes.add(lane);
+        int[] current = schedule;
+        int[] extended = new int[current.length + weight];
+        System.arraycopy(current, 0, extended, 0, current.length);
+        for (int i = current.length; i < extended.length; i++) {
+            extended[i] = index;
+        }
+        schedule = extended;
+    }
+
+    void signal() {
+        available.release();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (!available.tryAcquire(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (workers.isShutdown()) {
+                        return;
+                    }
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            running.incrementAndGet();
+            try {
+                next().run();
+            } catch (RuntimeException e) {
+                // lane tasks complete their own futures, this only keeps the worker alive for the next one
+                log.error("Pool task failed", e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    private Runnable next() {
+        while (true) {
+            int[] turns = schedule;
+            int start = (int) (ticket.getAndIncrement() % turns.length);
+            for (int i = 0; i < turns.length; i++) {
+                Runnable task = lanes.get(turns[(start + i) % turns.length]).poll();
+                if (task != null) {
+                    return task;
+                }
+            }
+            // the permit was released by an offer that has not reached the lane queue yet
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Stops accepting new tasks and waits until everything already accepted has run. Continuations of
+     * accepted work, like the next batch of an ordered key, are still let through while draining.
+     */
+    public boolean drain(Duration timeout) {
+        closed = true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!isIdle()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(IDLE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isIdle() {
+        if (running.get() > 0 || available.availablePermits() > 0) {
+            return false;
+        }
+        for (TaskExecutor lane : lanes) {
+            if (lane.pendingTasks() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rejects new tasks, lets the workers finish what is already queued and stops them once the lanes
+     * are empty.
+     */
+    public void shutdown() {
+        closed = true;
+        workers.shutdown();
+    }
+}
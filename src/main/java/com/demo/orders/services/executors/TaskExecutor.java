@@ -1,36 +1,185 @@
 package com.demo.orders.services.executors;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-
-public class TaskExecutor {
-    private final BlockingQueue<Runnable> taskQueue;
-    private final ExecutorService executorService;
-
-    public TaskExecutor(int numberOfThreads) {
-        taskQueue = new LinkedBlockingQueue<>();
-        executorService = Executors.newFixedThreadPool(numberOfThreads);
-        for (int i = 0; i < numberOfThreads; i++) {
-            executorService.submit(() -> {
-                while (!Thread.currentThread().isInterrupted()) {
-                    try {
-                        Runnable task = taskQueue.take();
-                        task.run();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
+import com.demo.orders.exceptions.TaskRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A named lane of a {@link SharedTaskPool}. The lane owns its capacity and rejection policy, the
+ * threads belong to the pool. Capacity counts every task accepted by the lane until it has run,
+ * including keyed tasks that still wait in an {@link OrderedTaskManager} mailbox.
+ */
+@Slf4j
+public class TaskExecutor implements Executor {
+    private final SharedTaskPool pool;
+    private final boolean ownsPool;
+    private final String name;
+    private final QueueLimits limits;
+    private final Semaphore capacity;
+    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Timer queueWait;
+    private final Timer execution;
+
+    /**
+     * A stand-alone lane with a pool of its own, {@link #shutdown()} stops that pool.
+     */
+    public TaskExecutor(String name, int numberOfThreads, QueueLimits limits) {
+        this(name, numberOfThreads, limits, ExecutionMode.PLATFORM);
+    }
+
+    public TaskExecutor(String name, int numberOfThreads, QueueLimits limits, ExecutionMode mode) {
+        this(new SharedTaskPool(name, numberOfThreads, mode), true, name, limits);
+    }
+
+    TaskExecutor(SharedTaskPool pool, String name, QueueLimits limits) {
+        this(pool, false, name, limits);
+    }
+
+    private TaskExecutor(SharedTaskPool pool, boolean ownsPool, String name, QueueLimits limits) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.name = name;
+        this.limits = limits;
+        this.capacity = new Semaphore(limits.capacity());
+        Gauge.builder("tasks.queue.depth", this, TaskExecutor::pendingTasks)
+                .tag("lane", name)
+                .register(Metrics.globalRegistry);
+        completed = Counter.builder("tasks.completed").tag("lane", name).register(Metrics.globalRegistry);
+        failed = Counter.builder("tasks.failed").tag("lane", name).register(Metrics.globalRegistry);
+        rejected = Counter.builder("tasks.rejected").tag("lane", name).register(Metrics.globalRegistry);
+        queueWait = Timer.builder("tasks.queue.wait")
+                .description("From acceptance by the lane until the task starts, keyed tasks include the wait for their key")
+                .tag("lane", name)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+        execution = Timer.builder("tasks.execution")
+                .tag("lane", name)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+        if (ownsPool) {
+            pool.register(this, 1);
+        }
+    }
+
+    public CompletableFuture<Void> submitTask(Runnable task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!tryAcquire(limits.rejectionPolicy() == RejectionPolicy.BLOCK)) {
+            if (limits.rejectionPolicy() != RejectionPolicy.CALLER_RUNS || pool.isClosed()) {
+                throw rejection();
+            }
+            run(task, future, System.nanoTime(), () -> {
             });
+            return future;
+        }
+        long acceptedAt = System.nanoTime();
+        execute(() -> run(task, future, acceptedAt, capacity::release));
+        return future;
+    }
+
+    /**
+     * Takes a capacity slot for a task that is queued somewhere else first, the slot is given back with
+     * {@link #release()} once the task has run. CALLER_RUNS waits like BLOCK here, running on the
+     * caller would overtake the tasks the slot holder queues behind.
+     */
+    void acquire() {
+        if (!tryAcquire(limits.rejectionPolicy() != RejectionPolicy.REJECT)) {
+            throw rejection();
+        }
+    }
+
+    void release() {
+        capacity.release();
+    }
+
+    private boolean tryAcquire(boolean wait) {
+        if (pool.isClosed()) {
+            return false;
+        }
+        if (!wait) {
+            return capacity.tryAcquire();
+        }
+        try {
+            return capacity.tryAcquire(limits.offerTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private TaskRejectedException rejection() {
+        rejected.increment();
+        if (pool.isClosed()) {
+            return new TaskRejectedException(String.format("Executor '%s' is shutting down", name));
+        }
+        return new TaskRejectedException(String.format("Executor '%s' is overloaded, %d tasks are queued", name, pendingTasks()));
+    }
+
+    /**
+     * Queues work that has already been admitted, without taking capacity. Also used for continuations
+     * while the pool drains.
+     */
+    @Override
+    public void execute(Runnable command) {
+        taskQueue.add(command);
+        pool.signal();
+    }
+
+    Runnable poll() {
+        return taskQueue.poll();
+    }
+
+    /**
+     * Runs an accepted task and completes its future, {@code acceptedAt} is the {@link System#nanoTime()}
+     * the lane took the task in. {@code release} gives back what the task held, it runs before the
+     * future completes so a caller reacting to the completion finds the capacity free again.
+     */
+    void run(Runnable task, CompletableFuture<Void> future, long acceptedAt, Runnable release) {
+        long start = System.nanoTime();
+        queueWait.record(start - acceptedAt, TimeUnit.NANOSECONDS);
+        // errors too, a keyed task that escapes here would never complete its future or free its key
+        Throwable failure = null;
+        try {
+            task.run();
+        } catch (Throwable e) {
+            failure = e;
         }
+        // recorded before completing, the future may run dependent work on this thread
+        execution.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        release.run();
+        if (failure == null) {
+            completed.increment();
+            future.complete(null);
+        } else {
+            log.error("Task failed", failure);
+            failed.increment();
+            future.completeExceptionally(failure);
+        }
+    }
+
+    public int pendingTasks() {
+        return limits.capacity() - capacity.availablePermits();
     }
 
-    public void submitTask(Runnable task) {
-        taskQueue.add(task);
+    public String getName() {
+        return name;
     }
 
     public void shutdown() {
-        executorService.shutdown();
+        if (ownsPool) {
+            pool.shutdown();
+        }
     }
-}
\ No newline at end of file
+}
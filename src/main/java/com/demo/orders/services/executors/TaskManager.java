@@ -1,17 +1,15 @@
 package com.demo.orders.services.executors;
 
+import java.util.concurrent.CompletableFuture;
+
 public class TaskManager {
     private final TaskExecutor createExecutor;
 
-    public TaskManager(int threadNum) {
-        createExecutor = new TaskExecutor(threadNum);
-    }
-
-    public void submitCreateTask(Runnable task) {
-        createExecutor.submitTask(task);
+    public TaskManager(TaskExecutor createLane) {
+        createExecutor = createLane;
     }
 
-    public void shutdown() {
-        createExecutor.shutdown();
+    public CompletableFuture<Void> submitCreateTask(Runnable task) {
+        return createExecutor.submitTask(task);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package com.demo.orders.services.executors;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+/**
+ * Merges updates of a key that are still waiting in the {@link OrderedTaskManager} into the queued one,
+ * so a burst of updates ends in a single write. Callers whose updates were merged share its future.
+ */
+public class UpdateCoalescer<P> {
+    private final OrderedTaskManager orderedTaskManager;
+    private final BinaryOperator<P> merger;
+    private final BiConsumer<String, P> writer;
+    private final ConcurrentMap<String, PendingUpdate<P>> pending = new ConcurrentHashMap<>();
+
+    public UpdateCoalescer(OrderedTaskManager orderedTaskManager, BinaryOperator<P> merger, BiConsumer<String, P> writer) {
+        this.orderedTaskManager = orderedTaskManager;
+        this.merger = merger;
+        this.writer = writer;
+    }
+
+    public CompletableFuture<Void> submit(String key, P patch) {
+        PendingUpdate<P> created = new PendingUpdate<>(patch);
+        PendingUpdate<P> update = pending.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+            existing.patch = merger.apply(existing.patch, patch);
+            return existing;
+        });
+        if (update == created) {
+            try {
+                orderedTaskManager.submitTask(key, () -> write(key, update))
+                        .whenComplete((result, error) -> {
+                            if (error == null) {
+                                update.future.complete(null);
+                            } else {
+                                update.future.completeExceptionally(error);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                pending.remove(key, update);
+                update.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return update.future;
+    }
+
+    /**
+     * Stops merging into the queued update of the key, must be called before submitting a task for
+     * the key that later updates are not allowed to overtake.
+     */
+    public void seal(String key) {
+        pending.remove(key);
+    }
+
+    public static <K, V> Map<K, V> mergeFields(Map<K, V> older, Map<K, V> newer) {
+        Map<K, V> merged = new LinkedHashMap<>(older);
+        merged.putAll(newer);
+        return merged;
+    }
+
+    private void write(String key, PendingUpdate<P> update) {
+        // once the update is unlinked nothing merges into it anymore, later updates queue a new write
+        pending.remove(key, update);
+        writer.accept(key, update.patch);
+    }
+
+    private static final class PendingUpdate<P> {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile P patch;
+
+        private PendingUpdate(P patch) {
+            this.patch = patch;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.demo.orders.services.ids;
+
+import java.util.Optional;
+
+/**
+ * Generates the ids of new orders and products, in the canonical 36 char UUID form. Which one is used
+ * is set by the idGenerator property, see {@link IdGeneratorType}.
+ */
+public interface IdGenerator {
+
+    String newId();
+
+    /**
+     * An id that sorts after every id generated before {@code epochMillis} and before every id
+     * generated from then on, to range scan by creation time. Empty when ids are not time ordered.
+     */
+    default Optional<String> lowerBound(long epochMillis) {
+        return Optional.empty();
+    }
+}
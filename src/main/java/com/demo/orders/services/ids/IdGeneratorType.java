@@ -0,0 +1,10 @@
+package com.demo.orders.services.ids;
+
+public enum IdGeneratorType {
+    RANDOM,
+    TIME_ORDERED;
+
+    IdGenerator create() {
+        return this == TIME_ORDERED ? new TimeOrderedIdGenerator() : new RandomIdGenerator();
+    }
+}
@@ -0,0 +1,14 @@
+package com.demo.orders.services.ids;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class IdGenerators {
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${idGenerator}") IdGeneratorType type) {
+        return type.create();
+    }
+}
@@ -0,0 +1,14 @@
+package com.demo.orders.services.ids;
+
+import java.util.UUID;
+
+/**
+ * Version 4 UUIDs. New ids land anywhere in the id index.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.demo.orders.services.ids;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Version 7 UUIDs as laid out in RFC 9562: 48 bits of unix millis, the version, a 12 bit counter in
+ * place of rand_a, the variant and 62 random bits. Ids generated by one instance strictly increase, so
+ * inserts append to the right edge of the id index. The millis and the counter share one atomic
+ * long, a counter overflow within a millisecond carries into the timestamp and borrows it from the
+ * next one, which the RFC allows for monotonicity.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3fff_ffff_ffff_ffffL;
+    private static final String MIN_ID = new UUID(0, 0).toString();
+
+    private final LongSupplier clock;
+    // millis << COUNTER_BITS | counter of the last id
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String newId() {
+        long start = clock.getAsLong() << COUNTER_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = Math.max(start, prev + 1);
+        } while (!last.compareAndSet(prev, next));
+        return toUuid(next, ThreadLocalRandom.current().nextLong()).toString();
+    }
+
+    /**
+     * The largest id of the millisecond before, no id of {@code epochMillis} or later sorts below it.
+     * There is no millisecond before the epoch, from there on every id is in range.
+     */
+    @Override
+    public Optional<String> lowerBound(long epochMillis) {
+        if (epochMillis <= 0) {
+            return Optional.of(MIN_ID);
+        }
+        long state = (epochMillis << COUNTER_BITS) - 1;
+        return Optional.of(toUuid(state, -1L).toString());
+    }
+
+    /**
+     * The creation time encoded in a version 7 id.
+     */
+    public static long epochMillisOf(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    private static UUID toUuid(long state, long random) {
+        long millis = state >>> COUNTER_BITS;
+        long counter = state & ((1L << COUNTER_BITS) - 1);
+        return new UUID(millis << 16 | VERSION | counter, VARIANT | random & RANDOM_MASK);
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.orders;
+
+import com.demo.orders.exceptions.ValidationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class CommonUtilsTest {
+
+    @Test
+    void testIsUUIDAcceptsCanonicalIds() {
+        for (int i = 0; i < 1000; i++) {
+            String id = UUID.randomUUID().toString();
+            Assertions.assertTrue(CommonUtils.isUUID(id), id);
+            Assertions.assertTrue(CommonUtils.isUUID(id.toUpperCase()), id);
+        }
+        Assertions.assertTrue(CommonUtils.isUUID("00000000-0000-0000-0000-000000000000"));
+        Assertions.assertTrue(CommonUtils.isUUID("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+    }
+
+    @Test
+    void testIsUUIDRejectsMalformedIds() {
+        String valid = "123e4567-e89b-12d3-a456-426614174000";
+        Assertions.assertFalse(CommonUtils.isUUID(null));
+        Assertions.assertFalse(CommonUtils.isUUID(""));
+        Assertions.assertFalse(CommonUtils.isUUID("not-an-id"));
+        Assertions.assertFalse(CommonUtils.isUUID("1-2-3-4-5"));
+        Assertions.assertFalse(CommonUtils.isUUID(valid + "0"));
+        Assertions.assertFalse(CommonUtils.isUUID(valid.substring(1)));
+        Assertions.assertFalse(CommonUtils.isUUID(valid.replace('-', '0')));
+        for (int i = 0; i < valid.length(); i++) {
+            for (char c : new char[]{'g', 'G', '/', ':', '@', '`', ' ', 'İ', 'š', '０'}) {
+                String id = valid.substring(0, i) + c + valid.substring(i + 1);
+                Assertions.assertFalse(CommonUtils.isUUID(id), id);
+            }
+        }
+    }
+
+    @Test
+    void testToUUIDMatchesFromString() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            Assertions.assertEquals(uuid, CommonUtils.toUUID(uuid.toString(), "id"));
+            Assertions.assertEquals(uuid, CommonUtils.toUUID(uuid.toString().toUpperCase(), "id"));
+        }
+        ValidationException ex = Assertions.assertThrows(ValidationException.class, () -> CommonUtils.toUUID("not-an-id", "id"));
+        Assertions.assertEquals(0, ex.getStackTrace().length);
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.orders;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.List;
+import java.util.Random;
+
+class TimestampFormatterTest {
+    private static final DateTimeFormatter REFERENCE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final List<String> ZONES = List.of("UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata");
+
+    @Test
+    void testMatchesDateTimeFormatterForRandomInstants() {
+        Random random = new Random(42);
+        for (String zone : ZONES) {
+            ZoneId zoneId = ZoneId.of(zone);
+            TimestampFormatter formatter = new TimestampFormatter(zoneId);
+            for (int i = 0; i < 20_000; i++) {
+                // 1900 to 2100, both sides of the epoch
+                long epochMillis = random.nextLong(-2_208_988_800_000L, 4_102_444_800_000L);
+                assertFormattedLikeReference(formatter, zoneId, epochMillis);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesDateTimeFormatterAroundOffsetTransitions() {
+        for (String zone : ZONES) {
+            ZoneId zoneId = ZoneId.of(zone);
+            TimestampFormatter formatter = new TimestampFormatter(zoneId);
+            Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+            for (int i = 0; i < 8; i++) {
+                ZoneOffsetTransition transition = zoneId.getRules().nextTransition(instant);
+                if (transition == null) {
+                    break;
+                }
+                long at = transition.toEpochSecond() * 1000;
+                for (long delta = -2_000; delta <= 2_000; delta += 250) {
+                    assertFormattedLikeReference(formatter, zoneId, at + delta);
+                }
+                // both sides of the local midnights next to the transition
+                for (long hour = -26; hour <= 26; hour++) {
+                    assertFormattedLikeReference(formatter, zoneId, at + hour * 3_600_000L - 1);
+                    assertFormattedLikeReference(formatter, zoneId, at + hour * 3_600_000L);
+                }
+                instant = transition.getInstant();
+            }
+        }
+    }
+
+    @Test
+    void testRepeatedCallsOnTheSameDay() {
+        ZoneId zoneId = ZoneId.of("Europe/London");
+        TimestampFormatter formatter = new TimestampFormatter(zoneId);
+        long start = Instant.parse("2023-07-14T22:59:59.500Z").toEpochMilli();
+        for (long epochMillis = start; epochMillis < start + 2_000; epochMillis += 100) {
+            assertFormattedLikeReference(formatter, zoneId, epochMillis);
+        }
+        Assertions.assertEquals("2023-07-14 23:59:59", formatter.format(start));
+        Assertions.assertEquals("2023-07-15 00:00:00", formatter.format(start + 500));
+    }
+
+    private static void assertFormattedLikeReference(TimestampFormatter formatter, ZoneId zoneId, long epochMillis) {
+        String expected = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId).format(REFERENCE);
+        Assertions.assertEquals(expected, formatter.format(epochMillis), () -> zoneId + " " + epochMillis);
+    }
+}
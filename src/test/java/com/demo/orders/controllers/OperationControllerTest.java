@@ -0,0 +1,93 @@
+package com.demo.orders.controllers;
+
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.services.OperationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class OperationControllerTest {
+
+    private OperationRegistry operationRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        operationRegistry = new OperationRegistry(2);
+        mockMvc = MockMvcBuilders.standaloneSetup(new OperationController(operationRegistry))
+                .setControllerAdvice(new GlobalExceptionHandler(1))
+                .build();
+    }
+
+    @Test
+    void getPendingOperationTest() throws Exception {
+        String operationId = operationRegistry.register(new CompletableFuture<Void>());
+
+        MvcResult result = mockMvc.perform(get("/operations/{id}", operationId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operationId", is(operationId)))
+                .andExpect(jsonPath("$.status", is(OperationStatus.PENDING.name())));
+    }
+
+    @Test
+    void waitForOperationTest() throws Exception {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        String operationId = operationRegistry.register(future);
+
+        MvcResult result = mockMvc.perform(get("/operations/{id}", operationId).param("wait", "5000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        future.completeExceptionally(new IllegalStateException("write failed"));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is(OperationStatus.FAILED.name())))
+                .andExpect(jsonPath("$.error", is("write failed")));
+    }
+
+    @Test
+    void evictedOperationTest() throws Exception {
+        String evicted = operationRegistry.register(CompletableFuture.completedFuture(null));
+        operationRegistry.register(CompletableFuture.completedFuture(null));
+        operationRegistry.register(CompletableFuture.completedFuture(null));
+
+        mockMvc.perform(get("/operations/{id}", evicted))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void pendingOperationIsNotEvictedTest() throws Exception {
+        String operationId = operationRegistry.register(new CompletableFuture<Void>());
+        operationRegistry.register(CompletableFuture.completedFuture(null));
+        operationRegistry.register(CompletableFuture.completedFuture(null));
+        operationRegistry.register(CompletableFuture.completedFuture(null));
+
+        MvcResult result = mockMvc.perform(get("/operations/{id}", operationId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is(OperationStatus.PENDING.name())));
+    }
+
+    @Test
+    void unknownOperationTest() throws Exception {
+        mockMvc.perform(get("/operations/{id}", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,27 +1,35 @@
 package com.demo.orders.controllers;
 
+import com.demo.orders.dtos.BulkItemResultDto;
+import com.demo.orders.dtos.BulkItemStatus;
+import com.demo.orders.dtos.BulkResultDto;
+import com.demo.orders.dtos.IdsDto;
 import com.demo.orders.dtos.OrderDto;
 import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
 import com.demo.orders.services.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,28 +39,29 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
-    @InjectMocks
-    private OrderController orderController;
-
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(orderController).build();
         objectMapper = new ObjectMapper();
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, objectMapper))
+                .setControllerAdvice(new GlobalExceptionHandler(1))
+                .build();
     }
 
     @Test
     void createOrderTest() throws Exception {
         OrderDto orderDto = new OrderDto();
         String orderId = UUID.randomUUID().toString();
-        given(orderService.createOrder(any(OrderDto.class))).willReturn(orderId);
+        String operationId = UUID.randomUUID().toString();
+        given(orderService.createOrder(any(OrderDto.class))).willReturn(new SubmittedOperationDto(orderId, operationId));
 
         mockMvc.perform(post("/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderDto)))
                 .andExpect(status().isCreated())
+                .andExpect(header().string(OperationController.OPERATION_LOCATION_HEADER, "/operations/" + operationId))
                 .andExpect(jsonPath("$", is(orderId)));
     }
 
@@ -77,12 +86,79 @@ class OrderControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(orders)));
     }
 
+    @Test
+    void getOrdersPageTest() throws Exception {
+        String after = UUID.randomUUID().toString();
+        OrderViewDto last = new OrderViewDto();
+        last.setOrderId(UUID.randomUUID().toString());
+        List<OrderViewDto> orders = Arrays.asList(new OrderViewDto(), last);
+        given(orderService.getOrdersPage(eq(after), eq(2))).willReturn(orders);
+
+        mockMvc.perform(get("/orders").param("after", after).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OrderController.NEXT_CURSOR_HEADER, last.getOrderId()))
+                .andExpect(content().json(objectMapper.writeValueAsString(orders)));
+    }
+
+    @Test
+    void getOrdersLastPageTest() throws Exception {
+        List<OrderViewDto> orders = List.of(new OrderViewDto());
+        given(orderService.getOrdersPage(eq(null), eq(10))).willReturn(orders);
+
+        mockMvc.perform(get("/orders").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(OrderController.NEXT_CURSOR_HEADER))
+                .andExpect(content().json(objectMapper.writeValueAsString(orders)));
+    }
+
+    @Test
+    void getOrdersPageCreatedFromTest() throws Exception {
+        List<OrderViewDto> orders = List.of(new OrderViewDto());
+        given(orderService.getOrdersPageCreatedFrom(eq(1700000000000L), eq(10))).willReturn(orders);
+
+        mockMvc.perform(get("/orders").param("createdFrom", "1700000000000").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(orders)));
+    }
+
+    @Test
+    void getOrdersPageCreatedFromOutOfRangeTest() throws Exception {
+        mockMvc.perform(get("/orders").param("createdFrom", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders").param("createdFrom", String.valueOf(1L << 48)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void streamAllOrdersTest() throws Exception {
+        OrderViewDto first = new OrderViewDto();
+        first.setOrderName("Order1");
+        OrderViewDto second = new OrderViewDto();
+        second.setOrderName("Order2");
+        willAnswer(invocation -> {
+            Consumer<OrderViewDto> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).given(orderService).streamAllOrders(any());
+
+        MvcResult result = mockMvc.perform(get("/orders/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(OrderController.NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
     @Test
     void updateOrderTest() throws Exception {
         String id = UUID.randomUUID().toString();
         OrderDto orderDto = new OrderDto();
         String orderId = UUID.randomUUID().toString();
-        given(orderService.updateOrder(eq(id), any(OrderDto.class))).willReturn(orderId);
+        given(orderService.updateOrder(eq(id), any(OrderDto.class))).willReturn(new SubmittedOperationDto(orderId, UUID.randomUUID().toString()));
 
         mockMvc.perform(put("/orders/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -94,15 +170,19 @@ class OrderControllerTest {
     @Test
     void deleteOrderTest() throws Exception {
         String id = UUID.randomUUID().toString();
+        String operationId = UUID.randomUUID().toString();
+        given(orderService.deleteOrder(eq(id))).willReturn(new SubmittedOperationDto(id, operationId));
 
         mockMvc.perform(delete("/orders/{id}", id))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(OperationController.OPERATION_LOCATION_HEADER, "/operations/" + operationId));
     }
 
     @Test
     void addProductToOrderTest() throws Exception {
         String orderId = UUID.randomUUID().toString();
         String productId = UUID.randomUUID().toString();
+        given(orderService.addProductToOrder(eq(orderId), eq(productId))).willReturn(new SubmittedOperationDto(orderId, UUID.randomUUID().toString()));
 
         mockMvc.perform(post("/orders/{orderId}/products/{productId}", orderId, productId))
                 .andExpect(status().isOk());
@@ -112,8 +192,61 @@ class OrderControllerTest {
     void removeProductFromOrderTest() throws Exception {
         String orderId = UUID.randomUUID().toString();
         String productId = UUID.randomUUID().toString();
+        given(orderService.removeProductFromOrder(eq(orderId), eq(productId))).willReturn(new SubmittedOperationDto(orderId, UUID.randomUUID().toString()));
 
         mockMvc.perform(delete("/orders/{orderId}/products/{productId}", orderId, productId))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createOrdersTest() throws Exception {
+        List<OrderDto> orders = List.of(new OrderDto("First"), new OrderDto("Second"));
+        String operationId = UUID.randomUUID().toString();
+        List<BulkItemResultDto> items = List.of(
+                new BulkItemResultDto(UUID.randomUUID().toString(), BulkItemStatus.ACCEPTED, null),
+                new BulkItemResultDto(UUID.randomUUID().toString(), BulkItemStatus.ACCEPTED, null));
+        given(orderService.createOrders(eq(orders))).willReturn(new BulkResultDto(operationId, items));
+
+        mockMvc.perform(post("/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orders)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OperationController.OPERATION_LOCATION_HEADER, "/operations/" + operationId))
+                .andExpect(jsonPath("$.items.length()", is(2)));
+    }
+
+    @Test
+    void addProductsToOrderTest() throws Exception {
+        String orderId = UUID.randomUUID().toString();
+        String found = UUID.randomUUID().toString();
+        String missing = UUID.randomUUID().toString();
+        String operationId = UUID.randomUUID().toString();
+        List<BulkItemResultDto> items = List.of(
+                new BulkItemResultDto(found, BulkItemStatus.ACCEPTED, null),
+                new BulkItemResultDto(missing, BulkItemStatus.NOT_FOUND, "Product not found"));
+        given(orderService.addProductsToOrder(eq(orderId), eq(List.of(found, missing)))).willReturn(new BulkResultDto(operationId, items));
+
+        mockMvc.perform(post("/orders/{orderId}/products/bulk-add", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new IdsDto(List.of(found, missing)))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OperationController.OPERATION_LOCATION_HEADER, "/operations/" + operationId))
+                .andExpect(jsonPath("$.items[0].status", is("ACCEPTED")))
+                .andExpect(jsonPath("$.items[1].status", is("NOT_FOUND")));
+    }
+
+    @Test
+    void removeProductsFromOrderWithNothingToRemoveTest() throws Exception {
+        String orderId = UUID.randomUUID().toString();
+        String productId = UUID.randomUUID().toString();
+        List<BulkItemResultDto> items = List.of(new BulkItemResultDto(productId, BulkItemStatus.NOT_LINKED, "Product is not linked to the order"));
+        given(orderService.removeProductsFromOrder(eq(orderId), eq(List.of(productId)))).willReturn(new BulkResultDto(null, items));
+
+        mockMvc.perform(post("/orders/{orderId}/products/bulk-remove", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new IdsDto(List.of(productId)))))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(OperationController.OPERATION_LOCATION_HEADER))
+                .andExpect(jsonPath("$.items[0].status", is("NOT_LINKED")));
+    }
+}
@@ -1,7 +1,12 @@
 package com.demo.orders.controllers;
 
+import com.demo.orders.dtos.BulkItemResultDto;
+import com.demo.orders.dtos.BulkItemStatus;
+import com.demo.orders.dtos.BulkResultDto;
+import com.demo.orders.dtos.IdsDto;
 import com.demo.orders.dtos.ProductDto;
 import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
 import com.demo.orders.services.ProductsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +19,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
@@ -45,12 +51,14 @@ class ProductControllerTest {
     void createProductTest() throws Exception {
         ProductDto productDto = new ProductDto();
         String productId = UUID.randomUUID().toString();
-        given(productsService.createProduct(any(ProductDto.class))).willReturn(productId);
+        String operationId = UUID.randomUUID().toString();
+        given(productsService.createProduct(any(ProductDto.class))).willReturn(new SubmittedOperationDto(productId, operationId));
 
         mockMvc.perform(post("/products")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(productDto)))
                 .andExpect(status().isCreated())
+                .andExpect(header().string(OperationController.OPERATION_LOCATION_HEADER, "/operations/" + operationId))
                 .andExpect(jsonPath("$", is(productId)));
     }
 
@@ -70,7 +78,7 @@ class ProductControllerTest {
         String id = UUID.randomUUID().toString();
         ProductDto productDto = new ProductDto();
         String productId = UUID.randomUUID().toString();
-        given(productsService.updateProduct(eq(id), any(ProductDto.class))).willReturn(productId);
+        given(productsService.updateProduct(eq(id), any(ProductDto.class))).willReturn(new SubmittedOperationDto(productId, UUID.randomUUID().toString()));
 
         mockMvc.perform(put("/products/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -82,8 +90,26 @@ class ProductControllerTest {
     @Test
     void deleteProductTest() throws Exception {
         String id = UUID.randomUUID().toString();
+        given(productsService.deleteProduct(eq(id))).willReturn(new SubmittedOperationDto(id, UUID.randomUUID().toString()));
 
         mockMvc.perform(delete("/products/{id}", id))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteProductsTest() throws Exception {
+        String id = UUID.randomUUID().toString();
+        String operationId = UUID.randomUUID().toString();
+        List<BulkItemResultDto> items = List.of(
+                new BulkItemResultDto(id, BulkItemStatus.ACCEPTED, null),
+                new BulkItemResultDto("not-an-id", BulkItemStatus.INVALID, "Invalid identifier format"));
+        given(productsService.deleteProducts(eq(List.of(id, "not-an-id")))).willReturn(new BulkResultDto(operationId, items));
+
+        mockMvc.perform(post("/products/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new IdsDto(List.of(id, "not-an-id")))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OperationController.OPERATION_LOCATION_HEADER, "/operations/" + operationId))
+                .andExpect(jsonPath("$.items[1].status", is("INVALID")));
+    }
+}
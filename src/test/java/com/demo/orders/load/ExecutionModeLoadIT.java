@@ -0,0 +1,77 @@
+package com.demo.orders.load;
+
+import com.demo.orders.OrdersApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same HTTP load against the application once with platform threads and once with virtual
+ * threads for Tomcat and the task pool, on the same database, and fails when virtual threads do not
+ * keep up. {@code load.virtualMinSpeedup} is the throughput virtual threads need relative to platform
+ * threads, 1.0 by default. Runs with {@code mvn -P load-test verify}, not with the unit tests.
+ */
+@Slf4j
+@Testcontainers
+class ExecutionModeLoadIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @Test
+    void testVirtualThreadsKeepUpWithPlatformThreads() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        double minSpeedup = Double.parseDouble(System.getProperty("load.virtualMinSpeedup", "1.0"));
+
+        LoadDriver driver;
+        LoadReport platform;
+        try (ConfigurableApplicationContext context = start(false)) {
+            driver = LoadDriver.seed(context.getBean(MongoOperations.class), profile, port(context));
+            platform = run(profile, driver);
+        }
+        LoadReport virtual;
+        try (ConfigurableApplicationContext context = start(true)) {
+            virtual = run(profile, driver.withPort(port(context)));
+        }
+        log.info("Platform threads");
+        platform.logSummary();
+        log.info("Virtual threads");
+        virtual.logSummary();
+
+        assertEquals(0, platform.overall().errors(), "Requests failed with platform threads");
+        assertEquals(0, virtual.overall().errors(), "Requests failed with virtual threads");
+        assertTrue(virtual.overall().throughput() >= platform.overall().throughput() * minSpeedup,
+                String.format("Virtual threads served %.1f req/s against %.1f req/s with platform threads",
+                        virtual.overall().throughput(), platform.overall().throughput()));
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(OrdersApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl())
+                .run();
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static LoadReport run(LoadProfile profile, LoadDriver driver) throws Exception {
+        long measureFrom = System.nanoTime() + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        List<LoadReport.Sample> samples = driver.run(profile, measureFrom, end);
+        return LoadReport.of(profile, samples, profile.duration(), Map.of());
+    }
+}
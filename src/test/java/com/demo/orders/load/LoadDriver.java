@@ -0,0 +1,135 @@
+package com.demo.orders.load;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds orders and products and sends the operations of a {@link LoadProfile} to one server over a
+ * fixed number of connections, each connection sending its next request once the previous one is
+ * answered.
+ */
+final class LoadDriver {
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final int port;
+    private final List<String> orderIds;
+    private final List<String> productIds;
+
+    private LoadDriver(int port, List<String> orderIds, List<String> productIds) {
+        this.port = port;
+        this.orderIds = orderIds;
+        this.productIds = productIds;
+    }
+
+    static LoadDriver seed(MongoOperations mongoOperations, LoadProfile profile, int port) {
+        long time = System.currentTimeMillis();
+        List<Product> products = new ArrayList<>(profile.seedProducts());
+        for (int i = 0; i < profile.seedProducts(); i++) {
+            products.add(new Product(UUID.randomUUID().toString(), "Product " + i, 10.0, time, time));
+        }
+        List<Order> orders = new ArrayList<>(profile.seedOrders());
+        List<LinkOrderProducts> links = new ArrayList<>();
+        for (int i = 0; i < profile.seedOrders(); i++) {
+            Order order = new Order(UUID.randomUUID().toString(), "Order " + i, time, time);
+            orders.add(order);
+            for (int j = 0; j < profile.productsPerOrder(); j++) {
+                LinkOrderProducts link = new LinkOrderProducts();
+                link.setOrderId(order.getOrderId());
+                link.setProductId(products.get((i * profile.productsPerOrder() + j) % products.size()).getProductId());
+                links.add(link);
+            }
+        }
+        mongoOperations.insert(products, Product.class);
+        mongoOperations.insert(orders, Order.class);
+        mongoOperations.insert(links, LinkOrderProducts.class);
+        return new LoadDriver(port, orders.stream().map(Order::getOrderId).toList(), products.stream().map(Product::getProductId).toList());
+    }
+
+    /**
+     * The same ids against another server on the same database.
+     */
+    LoadDriver withPort(int port) {
+        return new LoadDriver(port, orderIds, productIds);
+    }
+
+    /**
+     * Drives the load until {@code end} and returns the samples of the requests started from
+     * {@code measureFrom} on, both in {@link System#nanoTime()}.
+     */
+    List<LoadReport.Sample> run(LoadProfile profile, long measureFrom, long end) throws Exception {
+        ConcurrentLinkedQueue<LoadReport.Sample> samples = new ConcurrentLinkedQueue<>();
+        try (ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < profile.connections(); i++) {
+                running.add(connections.submit(() -> drive(profile, measureFrom, end, samples)));
+            }
+            for (Future<?> connection : running) {
+                connection.get();
+            }
+        }
+        return new ArrayList<>(samples);
+    }
+
+    private Void drive(LoadProfile profile, long measureFrom, long end, ConcurrentLinkedQueue<LoadReport.Sample> samples) throws Exception {
+        while (true) {
+            LoadProfile.Operation operation = profile.pick();
+            HttpRequest request = request(operation);
+            long start = System.nanoTime();
+            if (start >= end) {
+                return null;
+            }
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (start >= measureFrom) {
+                samples.add(new LoadReport.Sample(operation, System.nanoTime() - start, response.statusCode()));
+            }
+        }
+    }
+
+    private HttpRequest request(LoadProfile.Operation operation) {
+        String orderId = pick(orderIds);
+        String productId = pick(productIds);
+        return switch (operation) {
+            case GET_ORDER -> get("/orders/" + orderId);
+            case GET_ORDERS_PAGE -> get("/orders?limit=50&after=" + orderId);
+            case GET_PRODUCT -> get("/products/" + productId);
+            case CREATE_ORDER -> send("POST", "/orders", "{\"orderName\":\"Load\"}");
+            case CREATE_PRODUCT -> send("POST", "/products", "{\"productName\":\"Load\",\"productPrice\":1.0}");
+            case UPDATE_ORDER -> send("PUT", "/orders/" + orderId, "{\"orderName\":\"Load " + System.nanoTime() + "\"}");
+            case UPDATE_PRODUCT -> send("PUT", "/products/" + productId, "{\"productPrice\":" + ThreadLocalRandom.current().nextInt(1, 100) + "}");
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String pick(List<String> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
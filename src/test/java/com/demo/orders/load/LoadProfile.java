@@ -0,0 +1,71 @@
+package com.demo.orders.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What the load test drives and what it must stay within, read from system properties so a run can
+ * be tuned from the command line, e.g. {@code mvn -P load-test verify -Dload.connections=64}.
+ * {@code load.mix} holds relative weights such as {@code GET_ORDER=60,CREATE_ORDER=20,UPDATE_ORDER=20}.
+ */
+record LoadProfile(Map<LoadProfile.Operation, Integer> mix,
+                   int connections,
+                   Duration warmup,
+                   Duration duration,
+                   int seedOrders,
+                   int seedProducts,
+                   int productsPerOrder,
+                   long p99BudgetMillis,
+                   long p999BudgetMillis,
+                   double minThroughput) {
+
+    static final String DEFAULT_MIX = "GET_ORDER=45,GET_ORDERS_PAGE=5,GET_PRODUCT=15,CREATE_ORDER=10,CREATE_PRODUCT=5,UPDATE_ORDER=10,UPDATE_PRODUCT=10";
+
+    enum Operation {
+        GET_ORDER, GET_ORDERS_PAGE, GET_PRODUCT, CREATE_ORDER, CREATE_PRODUCT, UPDATE_ORDER, UPDATE_PRODUCT
+    }
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+                Integer.getInteger("load.connections", 32),
+                Duration.ofSeconds(Long.getLong("load.warmupSeconds", 5)),
+                Duration.ofSeconds(Long.getLong("load.durationSeconds", 20)),
+                Integer.getInteger("load.seedOrders", 1000),
+                Integer.getInteger("load.seedProducts", 1000),
+                Integer.getInteger("load.productsPerOrder", 5),
+                Long.getLong("load.p99BudgetMillis", 200),
+                Long.getLong("load.p999BudgetMillis", 500),
+                Double.parseDouble(System.getProperty("load.minThroughput", "200")));
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in load.mix: " + entry);
+            }
+            weights.put(Operation.valueOf(pair[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("load.mix has no positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    Operation pick() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int ticket = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            ticket -= weight.getValue();
+            if (ticket < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.orders.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles per operation and over all of them, plus the task queue depths sampled while
+ * the load ran. Logged and written as JSON to target/load-test/ so releases can be compared.
+ */
+@Slf4j
+record LoadReport(LoadProfile profile, Stats overall, Map<String, Stats> operations, Map<String, Depth> queueDepths) {
+
+    record Stats(long requests, long errors, double throughput, double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+        static Stats of(List<Sample> samples, Duration elapsed) {
+            long[] latencies = samples.stream().mapToLong(Sample::nanos).sorted().toArray();
+            long errors = samples.stream().filter(sample -> sample.status() >= 400).count();
+            return new Stats(latencies.length, errors, latencies.length / (elapsed.toNanos() / 1e9),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    latencies.length == 0 ? 0 : millis(latencies[latencies.length - 1]));
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return millis(sorted[(int) Math.ceil(sorted.length * percentile) - 1]);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    record Depth(int max, double mean) {
+    }
+
+    record Sample(LoadProfile.Operation operation, long nanos, int status) {
+    }
+
+    static LoadReport of(LoadProfile profile, List<Sample> samples, Duration elapsed, Map<String, int[]> depthSamples) {
+        Map<String, List<Sample>> byOperation = new TreeMap<>();
+        samples.forEach(sample -> byOperation.computeIfAbsent(sample.operation().name(), name -> new ArrayList<>()).add(sample));
+        Map<String, Stats> operations = new TreeMap<>();
+        byOperation.forEach((name, operationSamples) -> operations.put(name, Stats.of(operationSamples, elapsed)));
+        Map<String, Depth> depths = new TreeMap<>();
+        depthSamples.forEach((name, values) -> depths.put(name, new Depth(Arrays.stream(values).max().orElse(0), Arrays.stream(values).average().orElse(0))));
+        return new LoadReport(profile, Stats.of(samples, elapsed), operations, depths);
+    }
+
+    void logSummary() {
+        log.info(String.format("%-16s %9s %7s %10s %9s %9s %9s %9s", "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        operations.forEach(this::logRow);
+        logRow("ALL", overall);
+        queueDepths.forEach((name, depth) -> log.info(String.format("queue %-20s max %6d mean %9.1f", name, depth.max(), depth.mean())));
+    }
+
+    private void logRow(String name, Stats stats) {
+        log.info(String.format("%-16s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f", name, stats.requests(), stats.errors(), stats.throughput(),
+                stats.p50Millis(), stats.p99Millis(), stats.p999Millis(), stats.maxMillis()));
+    }
+
+    Path write() throws IOException {
+        Path directory = Files.createDirectories(Path.of("target", "load-test"));
+        Path file = directory.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.orders.load;
+
+import com.demo.orders.CommonTestUtils;
+import com.demo.orders.services.TaskLanes;
+import com.demo.orders.services.executors.TaskExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the HTTP API with a mix of reads and writes over a fixed number of connections against a
+ * Mongo container, and fails when latency or throughput misses the budgets of {@link LoadProfile}.
+ * Runs with {@code mvn -P load-test verify}, not with the unit tests.
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OrdersLoadIT {
+    private static final Duration DEPTH_SAMPLE_INTERVAL = Duration.ofMillis(50);
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Autowired
+    TaskLanes taskLanes;
+
+    @Test
+    void testMixedLoadStaysWithinBudget() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        LoadDriver driver = LoadDriver.seed(mongoOperations, profile, port);
+
+        Map<String, IntSupplier> queues = new LinkedHashMap<>();
+        for (TaskExecutor lane : List.of(taskLanes.getCreateLane(), taskLanes.getOrderedUpdateLane(), taskLanes.getDeleteLane())) {
+            queues.put(lane.getName(), lane::pendingTasks);
+        }
+        queues.put("ordered-keys", taskLanes.getOrderedTaskManager()::activeKeys);
+        Map<String, List<Integer>> depths = new LinkedHashMap<>();
+        queues.keySet().forEach(name -> depths.put(name, new ArrayList<>()));
+
+        List<LoadReport.Sample> samples;
+        long measureFrom = System.nanoTime() + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() >= measureFrom) {
+                queues.forEach((name, depth) -> depths.get(name).add(depth.getAsInt()));
+            }
+        }, 0, DEPTH_SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            samples = driver.run(profile, measureFrom, end);
+        } finally {
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        Map<String, int[]> depthSamples = new LinkedHashMap<>();
+        depths.forEach((name, values) -> depthSamples.put(name, values.stream().mapToInt(Integer::intValue).toArray()));
+        LoadReport report = LoadReport.of(profile, samples, profile.duration(), depthSamples);
+        report.logSummary();
+        log.info("Report written to {}", report.write());
+
+        // writes are acknowledged before they run, the backlog has to clear as well
+        assertTrue(CommonTestUtils.waitForResultWithTimeout(() -> queues.values().stream().allMatch(depth -> depth.getAsInt() == 0),
+                Duration.ofSeconds(30), Duration.ofMillis(100)), "Task queues did not drain after the run");
+        assertEquals(0, report.overall().errors(), "Requests failed during the run");
+        assertTrue(report.overall().p99Millis() <= profile.p99BudgetMillis(),
+                String.format("p99 %.2f ms is over the budget of %d ms", report.overall().p99Millis(), profile.p99BudgetMillis()));
+        assertTrue(report.overall().p999Millis() <= profile.p999BudgetMillis(),
+                String.format("p999 %.2f ms is over the budget of %d ms", report.overall().p999Millis(), profile.p999BudgetMillis()));
+        assertTrue(report.overall().throughput() >= profile.minThroughput(),
+                String.format("Throughput %.1f req/s is under the minimum of %.1f", report.overall().throughput(), profile.minThroughput()));
+    }
+}
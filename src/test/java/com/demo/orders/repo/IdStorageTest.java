@@ -0,0 +1,160 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.UUID;
+
+class IdStorageTest {
+    private static final String ORDER_ID = "123e4567-e89b-12d3-a456-426614174000";
+    private static final String PRODUCT_ID = UUID.randomUUID().toString();
+
+    @Test
+    void testStringIdsStayStrings() {
+        MappingMongoConverter converter = converter(false);
+
+        Document order = write(converter, newOrder());
+        Assertions.assertEquals(ORDER_ID, order.get("_id"));
+        Assertions.assertEquals(PRODUCT_ID, order.getList("products", Document.class).get(0).get("productId"));
+        Assertions.assertEquals(ORDER_ID, mapQuery(converter, Order.class, Criteria.where("orderId").is(ORDER_ID)).get("_id"));
+        Assertions.assertEquals(ORDER_ID, new IdStorage(false).toStored(ORDER_ID));
+    }
+
+    @Test
+    void testStringIdListsStayStrings() {
+        MappingMongoConverter converter = converter(false);
+
+        Document order = mapQuery(converter, Order.class, Criteria.where("orderId").in(List.of(ORDER_ID)));
+        Assertions.assertEquals(List.of(ORDER_ID), order.get("_id", Document.class).get("$in"));
+        Document link = mapQuery(converter, LinkOrderProducts.class, Criteria.where("orderId").in(List.of(ORDER_ID)).and("productId").nin(List.of(PRODUCT_ID)));
+        Assertions.assertEquals(List.of(ORDER_ID), link.get("orderId", Document.class).get("$in"));
+        Assertions.assertEquals(List.of(PRODUCT_ID), link.get("productId", Document.class).get("$nin"));
+
+        MongoPersistentEntity<?> orderEntity = converter.getMappingContext().getRequiredPersistentEntity(Order.class);
+        Update pullUpdate = new Update().pull("products", Query.query(Criteria.where("productId").in(List.of(PRODUCT_ID))));
+        Document pull = new UpdateMapper(converter).getMappedObject(pullUpdate.getUpdateObject(), orderEntity);
+        Assertions.assertEquals(List.of(PRODUCT_ID), pull.get("$pull", Document.class).get("products", Document.class).get("productId", Document.class).get("$in"));
+    }
+
+    @Test
+    void testWritesIdsAsBinarySubtype4() {
+        MappingMongoConverter converter = converter(true);
+
+        Document order = write(converter, newOrder());
+        assertBinary(ORDER_ID, order.get("_id"));
+        assertBinary(PRODUCT_ID, order.getList("products", Document.class).get(0).get("productId"));
+        Assertions.assertEquals("Order", order.get("orderName"));
+
+        Document product = write(converter, new Product(PRODUCT_ID, "Product", 10.0, 1L, 1L));
+        assertBinary(PRODUCT_ID, product.get("_id"));
+        Assertions.assertEquals("Product", product.get("productName"));
+
+        LinkOrderProducts link = new LinkOrderProducts();
+        link.setOrderId(ORDER_ID);
+        link.setProductId(PRODUCT_ID);
+        Document linkDocument = write(converter, link);
+        assertBinary(ORDER_ID, linkDocument.get("orderId"));
+        assertBinary(PRODUCT_ID, linkDocument.get("productId"));
+    }
+
+    @Test
+    void testReadsBothForms() {
+        Order fromBinary = converter(true).read(Order.class, write(converter(true), newOrder()));
+        Order fromString = converter(true).read(Order.class, write(converter(false), newOrder()));
+
+        Assertions.assertEquals(newOrder(), fromBinary);
+        Assertions.assertEquals(newOrder(), fromString);
+    }
+
+    @Test
+    void testMapsQueryValuesToBinary() {
+        MappingMongoConverter converter = converter(true);
+
+        assertBinary(ORDER_ID, mapQuery(converter, Order.class, Criteria.where("orderId").is(ORDER_ID)).get("_id"));
+        List<?> in = (List<?>) mapQuery(converter, Order.class, Criteria.where("orderId").in(List.of(ORDER_ID))).get("_id", Document.class).get("$in");
+        assertBinary(ORDER_ID, in.get(0));
+        // range operators on ids are not converted by the mapping, callers pass the stored form
+        Object after = new IdStorage(true).toStored(ORDER_ID);
+        assertBinary(ORDER_ID, mapQuery(converter, Order.class, Criteria.where("orderId").gt(after)).get("_id", Document.class).get("$gt"));
+
+        Document link = mapQuery(converter, LinkOrderProducts.class, Criteria.where("orderId").is(ORDER_ID).and("productId").in(List.of(PRODUCT_ID)));
+        assertBinary(ORDER_ID, link.get("orderId"));
+        assertBinary(PRODUCT_ID, ((List<?>) link.get("productId", Document.class).get("$in")).get(0));
+
+        Document snapshot = mapQuery(converter, Order.class, Criteria.where("products.productId").ne(PRODUCT_ID));
+        assertBinary(PRODUCT_ID, snapshot.get("products.productId", Document.class).get("$ne"));
+    }
+
+    @Test
+    void testMapsUpdateValuesToBinary() {
+        MappingMongoConverter converter = converter(true);
+        MongoPersistentEntity<?> order = converter.getMappingContext().getRequiredPersistentEntity(Order.class);
+        MongoPersistentEntity<?> link = converter.getMappingContext().getRequiredPersistentEntity(LinkOrderProducts.class);
+        UpdateMapper updateMapper = new UpdateMapper(converter);
+
+        Document setOnInsert = updateMapper.getMappedObject(new Update().setOnInsert("orderId", ORDER_ID).getUpdateObject(), link);
+        assertBinary(ORDER_ID, setOnInsert.get("$setOnInsert", Document.class).get("orderId"));
+
+        Document push = updateMapper.getMappedObject(new Update().push("products", newSnapshot()).getUpdateObject(), order);
+        assertBinary(PRODUCT_ID, push.get("$push", Document.class).get("products", Document.class).get("productId"));
+
+        Update pullUpdate = new Update().pull("products", Query.query(Criteria.where("productId").is(PRODUCT_ID)));
+        Document pull = updateMapper.getMappedObject(pullUpdate.getUpdateObject(), order);
+        assertBinary(PRODUCT_ID, pull.get("$pull", Document.class).get("products", Document.class).get("productId"));
+    }
+
+    private static Order newOrder() {
+        return new Order(ORDER_ID, "Order", 1L, 2L, List.of(newSnapshot()));
+    }
+
+    private static ProductSnapshot newSnapshot() {
+        return new ProductSnapshot(PRODUCT_ID, "Product", 10.0, 1L, 1L);
+    }
+
+    private static MappingMongoConverter converter(boolean binaryIds) {
+        IdStorage idStorage = new IdStorage(binaryIds);
+        MongoCustomConversions conversions = idStorage.mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        idStorage.applyTo(converter);
+        return converter;
+    }
+
+    private static Document write(MappingMongoConverter converter, Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+
+    private static Document mapQuery(MappingMongoConverter converter, Class<?> type, Criteria criteria) {
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+        return new QueryMapper(converter).getMappedObject(Query.query(criteria).getQueryObject(), entity);
+    }
+
+    private static void assertBinary(String expectedId, Object value) {
+        Binary binary = Assertions.assertInstanceOf(Binary.class, value);
+        Assertions.assertEquals(BsonBinarySubType.UUID_STANDARD.getValue(), binary.getType());
+        Assertions.assertEquals(expectedId, IdStorage.fromBinary(binary));
+    }
+}
@@ -0,0 +1,144 @@
+package com.demo.orders.repo;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records the commands the driver sends for the link deletes, each has to reach the server as one
+ * delete command with a single multi-document statement, however many links it removes.
+ */
+@Testcontainers
+@DataMongoTest
+@Import({IdStorage.class, IndexManager.class})
+class LinksOrdersProductsRepositoryCustomImplTest {
+    private static final int LINKS_PER_ID = 3;
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    LinksOrdersProductsRepository linksOrdersProductsRepository;
+
+    @Autowired
+    CommandCapture commandCapture;
+
+    private final List<String> orderIds = new ArrayList<>();
+    private final List<String> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        linksOrdersProductsRepository.deleteAll();
+        List<LinkOrderProducts> links = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            orderIds.add(UUID.randomUUID().toString());
+            productIds.add(UUID.randomUUID().toString());
+        }
+        // every order is linked to three products and every product to three orders
+        for (int i = 0; i < orderIds.size(); i++) {
+            for (int j = 0; j < LINKS_PER_ID; j++) {
+                LinkOrderProducts link = new LinkOrderProducts();
+                link.setOrderId(orderIds.get(i));
+                link.setProductId(productIds.get((i + j) % productIds.size()));
+                links.add(link);
+            }
+        }
+        linksOrdersProductsRepository.insert(links);
+    }
+
+    @Test
+    void testDeleteByOrderIdIsOneDeleteCommand() {
+        assertSingleDelete(links -> links.deleteByOrderId(orderIds.get(0)), LINKS_PER_ID);
+    }
+
+    @Test
+    void testDeleteByOrderIdInIsOneDeleteCommand() {
+        assertSingleDelete(links -> links.deleteByOrderIdIn(orderIds.subList(0, 2)), 2 * LINKS_PER_ID);
+    }
+
+    @Test
+    void testDeleteByProductIdIsOneDeleteCommand() {
+        assertSingleDelete(links -> links.deleteByProductId(productIds.get(0)), LINKS_PER_ID);
+    }
+
+    @Test
+    void testDeleteByProductIdInIsOneDeleteCommand() {
+        assertSingleDelete(links -> links.deleteByProductIdIn(productIds.subList(0, 2)), 2 * LINKS_PER_ID);
+    }
+
+    @Test
+    void testEmptyDeletesSkipTheRoundTrip() {
+        commandCapture.deletes.clear();
+
+        assertEquals(0, linksOrdersProductsRepository.deleteByProductIdIn(List.of()));
+        assertEquals(0, linksOrdersProductsRepository.deleteByOrderIdIn(List.of()));
+
+        assertEquals(List.of(), List.copyOf(commandCapture.deletes));
+    }
+
+    private void assertSingleDelete(ToLongFunction<LinksOrdersProductsRepository> delete, long expected) {
+        commandCapture.deletes.clear();
+
+        assertEquals(expected, delete.applyAsLong(linksOrdersProductsRepository));
+
+        assertEquals(1, commandCapture.deletes.size());
+        BsonDocument command = commandCapture.deletes.peek();
+        assertEquals(1, command.getArray("deletes").size());
+        // limit 0 deletes every match of the statement
+        assertEquals(0, command.getArray("deletes").get(0).asDocument().getNumber("limit").intValue());
+        assertEquals(orderIds.size() * LINKS_PER_ID - expected, linksOrdersProductsRepository.count());
+    }
+
+    static class CommandCapture implements CommandListener {
+        final Queue<BsonDocument> deletes = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if ("delete".equals(event.getCommandName())) {
+                deletes.add(event.getCommand().clone());
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CommandCaptureConfiguration {
+
+        @Bean
+        CommandCapture commandCapture() {
+            return new CommandCapture();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCaptureCustomizer(CommandCapture commandCapture) {
+            return settings -> settings.addCommandListener(commandCapture);
+        }
+    }
+}
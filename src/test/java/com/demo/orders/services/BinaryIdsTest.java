@@ -0,0 +1,127 @@
+package com.demo.orders.services;
+
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.OrderDto;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.demo.orders.repo.BinaryIdMigration;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.mongodb.client.MongoCollection;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {"binaryIds=true", "embeddedProductSnapshots=true"})
+@Import(BinaryIdMigration.class)
+class BinaryIdsTest extends IntegrationTestsBase {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Autowired
+    BinaryIdMigration binaryIdMigration;
+
+    @Test
+    void createAndLink_ShouldStoreBinaryIdsAndServeStrings() {
+        String orderId = await(orderService.createOrder(new OrderDto("Order")));
+        String productId = await(productsService.createProduct(new ProductDto(null, "Product", 10.0)));
+        await(orderService.addProductToOrder(orderId, productId));
+
+        assertBinary(orderId, raw(Order.class).get("_id"));
+        assertBinary(productId, raw(Product.class).get("_id"));
+        Document link = raw(LinkOrderProducts.class);
+        assertBinary(orderId, link.get("orderId"));
+        assertBinary(productId, link.get("productId"));
+        assertBinary(productId, raw(Order.class).getList("products", Document.class).get(0).get("productId"));
+
+        OrderViewDto view = orderService.getOrderById(orderId);
+        assertEquals(orderId, view.getOrderId());
+        assertEquals(productId, view.getProducts().get(0).getProductId());
+    }
+
+    @Test
+    void getOrdersPage_ShouldPageThroughBinaryIds() {
+        for (int i = 0; i < 5; i++) {
+            await(orderService.createOrder(new OrderDto("Order " + i)));
+        }
+
+        List<OrderViewDto> first = orderService.getOrdersPage(null, 3);
+        List<OrderViewDto> second = orderService.getOrdersPage(first.get(2).getOrderId(), 3);
+
+        assertEquals(3, first.size());
+        assertEquals(2, second.size());
+        assertTrue(first.get(2).getOrderId().compareTo(second.get(0).getOrderId()) < 0);
+    }
+
+    @Test
+    void migrate_ShouldRewriteStringIds() {
+        String orderId = UUID.randomUUID().toString();
+        String productId = UUID.randomUUID().toString();
+        long time = System.currentTimeMillis();
+        Document snapshot = new Document("productId", productId).append("productName", "Product").append("productPrice", 10.0)
+                .append("createDate", time).append("updateDate", time);
+        collection(Order.class).insertOne(new Document("_id", orderId).append("orderName", "Order")
+                .append("createDate", time).append("updateDate", time).append("products", List.of(snapshot)));
+        collection(Product.class).insertOne(new Document("_id", productId).append("productName", "Product")
+                .append("productPrice", 10.0).append("createDate", time).append("updateDate", time));
+        collection(LinkOrderProducts.class).insertOne(new Document("_id", new ObjectId()).append("orderId", orderId).append("productId", productId));
+
+        assertEquals(3, binaryIdMigration.migrate());
+
+        assertBinary(orderId, raw(Order.class).get("_id"));
+        assertBinary(productId, raw(Order.class).getList("products", Document.class).get(0).get("productId"));
+        assertBinary(productId, raw(Product.class).get("_id"));
+        assertBinary(orderId, raw(LinkOrderProducts.class).get("orderId"));
+        assertEquals(productId, orderService.getOrderById(orderId).getProducts().get(0).getProductId());
+        assertEquals(0, binaryIdMigration.migrate());
+    }
+
+    private Document raw(Class<?> type) {
+        return collection(type).find().first();
+    }
+
+    private MongoCollection<Document> collection(Class<?> type) {
+        return mongoOperations.getCollection(mongoOperations.getCollectionName(type));
+    }
+
+    private String await(SubmittedOperationDto submitted) {
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+        return submitted.getId();
+    }
+
+    private static void assertBinary(String expectedId, Object value) {
+        Binary binary = assertInstanceOf(Binary.class, value);
+        assertEquals(BsonBinarySubType.UUID_STANDARD.getValue(), binary.getType());
+        UUID uuid = UUID.fromString(expectedId);
+        ByteBuffer bytes = ByteBuffer.wrap(binary.getData());
+        assertEquals(uuid, new UUID(bytes.getLong(), bytes.getLong()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.demo.orders.services;
+
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.OrderDto;
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = "embeddedProductSnapshots=true")
+class EmbeddedProductSnapshotsTest extends IntegrationTestsBase {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    ProductSnapshotReconciler productSnapshotReconciler;
+
+    @Test
+    void addProductToOrder_ShouldEmbedSnapshot() {
+        String orderId = await(orderService.createOrder(new OrderDto("Order")));
+        String productId = await(productsService.createProduct(new ProductDto(null, "Product", 10.0)));
+
+        await(orderService.addProductToOrder(orderId, productId));
+
+        Order order = ordersRepository.findById(orderId).orElseThrow();
+        assertEquals(1, order.getProducts().size());
+        assertEquals(productId, order.getProducts().get(0).getProductId());
+        OrderViewDto view = orderService.getOrderById(orderId);
+        assertEquals("Product", view.getProducts().get(0).getProductName());
+    }
+
+    @Test
+    void updateProduct_ShouldFanOutToEmbeddingOrders() {
+        String productId = await(productsService.createProduct(new ProductDto(null, "Product", 10.0)));
+        String firstOrderId = await(orderService.createOrder(new OrderDto("First")));
+        String secondOrderId = await(orderService.createOrder(new OrderDto("Second")));
+        await(orderService.addProductToOrder(firstOrderId, productId));
+        await(orderService.addProductToOrder(secondOrderId, productId));
+
+        await(productsService.updateProduct(productId, new ProductDto(null, "Renamed", 12.0)));
+
+        for (String orderId : List.of(firstOrderId, secondOrderId)) {
+            ProductSnapshot snapshot = ordersRepository.findById(orderId).orElseThrow().getProducts().get(0);
+            assertEquals("Renamed", snapshot.getProductName());
+            assertEquals(12.0, snapshot.getProductPrice());
+        }
+    }
+
+    @Test
+    void backfill_ShouldEmbedSnapshotsInExistingOrders() {
+        long time = System.currentTimeMillis();
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 10.0, time, time));
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time));
+        linksOrdersProductsRepository.save(newLink(order.getOrderId(), product.getProductId()));
+
+        assertEquals(1, productSnapshotReconciler.backfill());
+
+        assertEquals(List.of(ProductSnapshot.of(product)), ordersRepository.findById(order.getOrderId()).orElseThrow().getProducts());
+        assertEquals(0, productSnapshotReconciler.backfill());
+    }
+
+    @Test
+    void reconcile_ShouldRepairDriftedSnapshots() {
+        long time = System.currentTimeMillis();
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 10.0, time, time));
+        ProductSnapshot stale = new ProductSnapshot(product.getProductId(), "Stale", 1.0, time, time - 1);
+        ProductSnapshot removed = new ProductSnapshot(UUID.randomUUID().toString(), "Removed", 1.0, time, time);
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time, List.of(stale, removed)));
+        linksOrdersProductsRepository.save(newLink(order.getOrderId(), product.getProductId()));
+
+        assertEquals(1, productSnapshotReconciler.reconcile());
+
+        assertEquals(List.of(ProductSnapshot.of(product)), ordersRepository.findById(order.getOrderId()).orElseThrow().getProducts());
+        assertEquals(0, productSnapshotReconciler.reconcile());
+    }
+
+    private String await(SubmittedOperationDto submitted) {
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+        return submitted.getId();
+    }
+
+    private static LinkOrderProducts newLink(String orderId, String productId) {
+        LinkOrderProducts link = new LinkOrderProducts();
+        link.setOrderId(orderId);
+        link.setProductId(productId);
+        return link;
+    }
+}
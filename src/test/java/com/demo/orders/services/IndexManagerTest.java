@@ -0,0 +1,63 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.IndexManager;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexManagerTest extends IntegrationTestsBase {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    IndexManager indexManager;
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Test
+    void ensureIndexes_ShouldRemoveDuplicateLinksBeforeBuildingTheUniqueIndex() {
+        // a database from before the links were unique
+        mongoOperations.indexOps(LinkOrderProducts.class).dropAllIndexes();
+        String orderId = UUID.randomUUID().toString();
+        String productId = UUID.randomUUID().toString();
+        String otherProductId = UUID.randomUUID().toString();
+        for (int i = 0; i < 3; i++) {
+            linksOrdersProductsRepository.insert(newLink(orderId, productId));
+        }
+        linksOrdersProductsRepository.insert(newLink(orderId, otherProductId));
+
+        indexManager.ensureIndexes();
+
+        List<LinkOrderProducts> links = linksOrdersProductsRepository.findAll();
+        assertEquals(2, links.size());
+        assertEquals(Set.of(productId, otherProductId), links.stream().map(LinkOrderProducts::getProductId).collect(Collectors.toSet()));
+        assertTrue(mongoOperations.indexOps(LinkOrderProducts.class).getIndexInfo().stream()
+                .anyMatch(info -> info.isUnique() && info.isIndexForFields(List.of("orderId", "productId"))));
+    }
+
+    private static LinkOrderProducts newLink(String orderId, String productId) {
+        LinkOrderProducts link = new LinkOrderProducts();
+        link.setOrderId(orderId);
+        link.setProductId(productId);
+        return link;
+    }
+}
@@ -1,8 +1,11 @@
 package com.demo.orders.services;
 
+import com.demo.orders.repo.IdStorage;
+import com.demo.orders.repo.IndexManager;
 import com.demo.orders.repo.LinksOrdersProductsRepository;
 import com.demo.orders.repo.OrdersRepository;
 import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.services.ids.IdGenerators;
 import org.junit.jupiter.api.AfterEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
@@ -11,7 +14,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 @Testcontainers
 @DataMongoTest
-@Import({OrderService.class, ProductsService.class, TransactionalInvoker.class})
+@Import({OrderService.class, ProductsService.class, TransactionalInvoker.class, OrderViewAssembler.class, OperationRegistry.class, ProductCache.class, TaskLanes.class,
+        OrderProductSnapshots.class, ProductSnapshotReconciler.class, OrphanLinkSweeper.class, OutboxActions.class, OutboxRelay.class, IdStorage.class, IdGenerators.class, IndexManager.class})
 public abstract class IntegrationTestsBase {
 
     @Autowired
@@ -29,6 +33,9 @@ public abstract class IntegrationTestsBase {
     @Autowired
     ProductsService productsService;
 
+    @Autowired
+    OperationRegistry operationRegistry;
+
     @AfterEach
     void tearDown() {
         ordersRepository.deleteAll();
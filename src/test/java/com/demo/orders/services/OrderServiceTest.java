@@ -1,12 +1,19 @@
 package com.demo.orders.services;
 
 import com.demo.orders.CommonTestUtils;
+import com.demo.orders.dtos.BulkItemResultDto;
+import com.demo.orders.dtos.BulkItemStatus;
+import com.demo.orders.dtos.BulkResultDto;
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.OperationStatusDto;
 import com.demo.orders.dtos.OrderDto;
 import com.demo.orders.dtos.OrderViewDto;
 import com.demo.orders.dtos.ProductDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
 import com.demo.orders.exceptions.OrderNotFoundException;
 import com.demo.orders.repo.entities.LinkOrderProducts;
 import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -15,6 +22,7 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -36,7 +44,7 @@ class OrderServiceTest extends IntegrationTestsBase {
     void createOrder_ShouldCreateOrder() {
         OrderDto orderDto = new OrderDto("New Order");
 
-        String id = orderService.createOrder(orderDto);
+        String id = orderService.createOrder(orderDto).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> ordersRepository.existsById(id), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -46,12 +54,22 @@ class OrderServiceTest extends IntegrationTestsBase {
         assertEquals(orderDto.getOrderName(), createdOrder.getOrderName());
     }
 
+    @Test
+    void createOrder_ShouldCompleteOperation() {
+        SubmittedOperationDto submitted = orderService.createOrder(new OrderDto("Tracked Order"));
+
+        OperationStatusDto status = operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join();
+
+        assertEquals(OperationStatus.COMPLETED, status.getStatus());
+        assertTrue(ordersRepository.existsById(submitted.getId()));
+    }
+
     @Test
     void getOrderById_WhenOrderExists_ShouldReturnOrder() {
 
         OrderDto orderDto = new OrderDto("Existing Order");
 
-        String id = orderService.createOrder(orderDto);
+        String id = orderService.createOrder(orderDto).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> ordersRepository.existsById(id), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -75,7 +93,7 @@ class OrderServiceTest extends IntegrationTestsBase {
         ordersRepository.save(existingOrder);
         OrderDto updateDto = new OrderDto("Updated Order");
 
-        String id = orderService.updateOrder(existingOrder.getOrderId(), updateDto);
+        String id = orderService.updateOrder(existingOrder.getOrderId(), updateDto).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> ordersRepository.findById(existingOrder.getOrderId()).get().getUpdateDate() > createTime, Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -106,6 +124,20 @@ class OrderServiceTest extends IntegrationTestsBase {
         assertFalse(ordersRepository.existsById(existingOrder.getOrderId()));
     }
 
+    @Test
+    void deleteOrder_ShouldDeleteItsLinks() {
+        long currTime = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", currTime, currTime));
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 10.0, currTime, currTime));
+        linksOrdersProductsRepository.linkAll(order.getOrderId(), List.of(product.getProductId()));
+
+        SubmittedOperationDto submitted = orderService.deleteOrder(order.getOrderId());
+
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+        assertTrue(linksOrdersProductsRepository.findByOrderId(order.getOrderId()).isEmpty());
+        assertTrue(productsRepository.existsById(product.getProductId()));
+    }
+
     @Test
     void deleteOrder_WhenOrderDoesNotExist_ShouldThrowException() {
         String nonExistentOrderId = UUID.randomUUID().toString();
@@ -118,7 +150,7 @@ class OrderServiceTest extends IntegrationTestsBase {
         Order existingOrder = new Order(UUID.randomUUID().toString(), "Order", System.currentTimeMillis(), System.currentTimeMillis());
         ordersRepository.save(existingOrder);
         ProductDto productToAdd = new ProductDto(existingOrder.getOrderId(), "Product", 100.0);
-        String productId = productsService.createProduct(productToAdd);
+        String productId = productsService.createProduct(productToAdd).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> productsRepository.existsById(productId), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -137,6 +169,20 @@ class OrderServiceTest extends IntegrationTestsBase {
         assertFalse(updatedOrder.getProducts().get(0).getUpdateDate().isEmpty());
     }
 
+    @Test
+    void addProductToOrder_WhenProductIsLinkedAlready_ShouldKeepOneLink() {
+        long time = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time));
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 100.0, time, time));
+
+        SubmittedOperationDto first = orderService.addProductToOrder(order.getOrderId(), product.getProductId());
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(first.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+        SubmittedOperationDto second = orderService.addProductToOrder(order.getOrderId(), product.getProductId());
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(second.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+
+        assertEquals(1, linksOrdersProductsRepository.findAll().size());
+    }
+
     @Test
     void addProductToOrder_WhenOrderDoesNotExist_ShouldThrowException() {
         String nonExistentOrderId = UUID.randomUUID().toString();
@@ -149,7 +195,7 @@ class OrderServiceTest extends IntegrationTestsBase {
     void removeProductFromOrder_WhenOrderAndProductExist_ShouldRemoveProduct() {
         Order existingOrder = new Order(UUID.randomUUID().toString(), "Order", System.currentTimeMillis(), System.currentTimeMillis());
         ordersRepository.save(existingOrder);
-        String productId = productsService.createProduct(new ProductDto(existingOrder.getOrderId(), "Product", 100.0));
+        String productId = productsService.createProduct(new ProductDto(existingOrder.getOrderId(), "Product", 100.0)).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> productsRepository.existsById(productId), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -169,6 +215,18 @@ class OrderServiceTest extends IntegrationTestsBase {
         assertFalse(updatedOrder.getProducts().stream().anyMatch(p -> p.getProductId().equals(productId)));
     }
 
+    @Test
+    void removeProductFromOrder_WhenProductIsNotLinked_ShouldKeepProduct() {
+        long time = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time));
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 100.0, time, time));
+
+        SubmittedOperationDto submitted = orderService.removeProductFromOrder(order.getOrderId(), product.getProductId());
+
+        assertEquals(OperationStatus.FAILED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+        assertTrue(productsRepository.existsById(product.getProductId()));
+    }
+
     @Test
     void removeProductFromOrder_WhenOrderDoesNotExist_ShouldThrowException() {
         String nonExistentOrderId = UUID.randomUUID().toString();
@@ -181,21 +239,21 @@ class OrderServiceTest extends IntegrationTestsBase {
     void getAllOrders() {
         OrderDto orderDto = new OrderDto("Order1");
 
-        String id = orderService.createOrder(orderDto);
+        String id = orderService.createOrder(orderDto).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> ordersRepository.existsById(id), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
 
         orderDto = new OrderDto("Order2");
 
-        String id2 = orderService.createOrder(orderDto);
+        String id2 = orderService.createOrder(orderDto).getId();
 
         status = CommonTestUtils.waitForResultWithTimeout(() -> ordersRepository.existsById(id2), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
 
         orderDto = new OrderDto("Order3");
 
-        String id3 = orderService.createOrder(orderDto);
+        String id3 = orderService.createOrder(orderDto).getId();
 
         status = CommonTestUtils.waitForResultWithTimeout(() -> ordersRepository.existsById(id3), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -218,4 +276,109 @@ class OrderServiceTest extends IntegrationTestsBase {
 
         assertTrue(ids.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllOrders_ShouldIncludeLinkedProducts() {
+        long currTime = System.currentTimeMillis();
+        Product product = new Product(UUID.randomUUID().toString(), "Product", 10.0, currTime, currTime);
+        productsRepository.save(product);
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), "Order" + i, currTime, currTime);
+            ordersRepository.save(order);
+            LinkOrderProducts link = new LinkOrderProducts();
+            link.setOrderId(order.getOrderId());
+            link.setProductId(product.getProductId());
+            linksOrdersProductsRepository.save(link);
+        }
+
+        List<OrderViewDto> allOrders = orderService.getAllOrders();
+
+        assertEquals(3, allOrders.size());
+        for (OrderViewDto order : allOrders) {
+            assertEquals(1, order.getProducts().size());
+            assertEquals(product.getProductId(), order.getProducts().get(0).getProductId());
+        }
+    }
+
+    @Test
+    void getOrdersPage_ShouldWalkAllOrdersInIdOrder() {
+        long currTime = System.currentTimeMillis();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), "Order" + i, currTime, currTime);
+            ordersRepository.save(order);
+            ids.add(order.getOrderId());
+        }
+
+        List<String> walked = new ArrayList<>();
+        String after = null;
+        List<OrderViewDto> page;
+        do {
+            page = orderService.getOrdersPage(after, 2);
+            page.forEach(order -> walked.add(order.getOrderId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getOrderId();
+        } while (page.size() == 2);
+
+        assertEquals(5, walked.size());
+        assertEquals(ids, new HashSet<>(walked));
+        assertEquals(walked.stream().sorted().toList(), walked);
+    }
+
+    @Test
+    void addProductsToOrder_ShouldLinkFoundProductsAndReportTheRest() {
+        long currTime = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", currTime, currTime));
+        List<String> productIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            productIds.add(productsRepository.save(new Product(UUID.randomUUID().toString(), "Product" + i, 10.0, currTime, currTime)).getProductId());
+        }
+        String missing = UUID.randomUUID().toString();
+        List<String> requested = new ArrayList<>(productIds);
+        requested.addAll(List.of(missing, productIds.get(0), "not-an-id"));
+
+        BulkResultDto result = orderService.addProductsToOrder(order.getOrderId(), requested);
+
+        assertEquals(List.of(BulkItemStatus.ACCEPTED, BulkItemStatus.ACCEPTED, BulkItemStatus.ACCEPTED,
+                        BulkItemStatus.NOT_FOUND, BulkItemStatus.DUPLICATE, BulkItemStatus.INVALID),
+                result.getItems().stream().map(BulkItemResultDto::getStatus).toList());
+        OperationStatusDto status = operationRegistry.awaitStatus(result.getOperationId(), Duration.ofSeconds(2)).join();
+        assertEquals(OperationStatus.COMPLETED, status.getStatus());
+        assertEquals(3, orderService.getOrderById(order.getOrderId()).getProducts().size());
+    }
+
+    @Test
+    void removeProductsFromOrder_ShouldDeleteProductsBeforeCompleting() {
+        long currTime = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", currTime, currTime));
+        List<String> productIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            productIds.add(productsRepository.save(new Product(UUID.randomUUID().toString(), "Product" + i, 10.0, currTime, currTime)).getProductId());
+        }
+        linksOrdersProductsRepository.linkAll(order.getOrderId(), productIds);
+
+        BulkResultDto result = orderService.removeProductsFromOrder(order.getOrderId(), productIds);
+
+        OperationStatusDto status = operationRegistry.awaitStatus(result.getOperationId(), Duration.ofSeconds(2)).join();
+        assertEquals(OperationStatus.COMPLETED, status.getStatus());
+        assertEquals(0, productsRepository.count());
+        assertTrue(linksOrdersProductsRepository.findByOrderId(order.getOrderId()).isEmpty());
+    }
+
+    @Test
+    void deleteOrders_ShouldDeleteFoundOrders() {
+        long currTime = System.currentTimeMillis();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order" + i, currTime, currTime)).getOrderId());
+        }
+        List<String> requested = new ArrayList<>(ids);
+        requested.add(UUID.randomUUID().toString());
+
+        BulkResultDto result = orderService.deleteOrders(requested);
+
+        assertEquals(BulkItemStatus.NOT_FOUND, result.getItems().get(3).getStatus());
+        OperationStatusDto status = operationRegistry.awaitStatus(result.getOperationId(), Duration.ofSeconds(2)).join();
+        assertEquals(OperationStatus.COMPLETED, status.getStatus());
+        assertEquals(0, ordersRepository.count());
+    }
+}
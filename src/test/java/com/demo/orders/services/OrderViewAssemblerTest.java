@@ -0,0 +1,127 @@
+package com.demo.orders.services;
+
+import com.demo.orders.dtos.OrderViewDto;
+import com.demo.orders.dtos.ProductViewDto;
+import com.demo.orders.repo.LinksOrdersProductsRepository;
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OrderViewAssemblerTest {
+
+    @Mock
+    private LinksOrdersProductsRepository linksOrdersProductsRepository;
+
+    @Mock
+    private ProductsService productsService;
+
+    @Mock
+    private OrderProductSnapshots orderProductSnapshots;
+
+    private OrderViewAssembler orderViewAssembler;
+
+    @BeforeEach
+    void setUp() {
+        orderViewAssembler = new OrderViewAssembler(linksOrdersProductsRepository, productsService, orderProductSnapshots, 10);
+    }
+
+    @Test
+    void assembleAll_ShouldQueryOncePerChunk() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            orders.add(newOrder("Order" + i));
+        }
+        ProductViewDto product = new ProductViewDto(UUID.randomUUID().toString(), "Product", 10.0, "", "");
+        given(linksOrdersProductsRepository.findLinkIdsByOrderIdIn(anyCollection())).willAnswer(invocation -> {
+            Collection<String> orderIds = invocation.getArgument(0);
+            return orderIds.stream().map(orderId -> newLink(orderId, product.getProductId())).toList();
+        });
+        given(productsService.getProductsIn(anyList())).willReturn(List.of(product));
+
+        List<OrderViewDto> views = new ArrayList<>();
+        orderViewAssembler.assembleAll(orders.iterator(), views::add);
+
+        assertEquals(25, views.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(orders.get(i).getOrderId(), views.get(i).getOrderId());
+            assertEquals(List.of(product), views.get(i).getProducts());
+        }
+        verify(linksOrdersProductsRepository, times(3)).findLinkIdsByOrderIdIn(anyCollection());
+        verify(productsService, times(3)).getProductsIn(anyList());
+    }
+
+    @Test
+    void assemble_ShouldKeepOrdersWithoutProducts() {
+        Order order = newOrder("Order");
+        given(linksOrdersProductsRepository.findLinkIdsByOrderIdIn(anyCollection())).willReturn(List.of());
+        given(productsService.getProductsIn(anyList())).willReturn(List.of());
+
+        List<OrderViewDto> views = orderViewAssembler.assemble(List.of(order));
+
+        assertEquals(1, views.size());
+        assertEquals(order.getOrderName(), views.get(0).getOrderName());
+        assertTrue(views.get(0).getProducts().isEmpty());
+    }
+
+    @Test
+    void assembleOne_ShouldReadLinksOfThatOrderOnly() {
+        Order order = newOrder("Order");
+        ProductViewDto product = new ProductViewDto(UUID.randomUUID().toString(), "Product", 10.0, "", "");
+        given(linksOrdersProductsRepository.findLinkIdsByOrderId(order.getOrderId())).willReturn(List.of(newLink(order.getOrderId(), product.getProductId())));
+        given(productsService.getProductsIn(List.of(product.getProductId()))).willReturn(List.of(product));
+
+        OrderViewDto view = orderViewAssembler.assemble(order);
+
+        assertEquals(order.getOrderId(), view.getOrderId());
+        assertEquals(List.of(product), view.getProducts());
+        verify(linksOrdersProductsRepository, never()).findLinkIdsByOrderIdIn(anyCollection());
+    }
+
+    @Test
+    void assemble_WithEmbeddedSnapshots_ShouldNotQueryLinks() {
+        long time = System.currentTimeMillis();
+        ProductSnapshot snapshot = new ProductSnapshot(UUID.randomUUID().toString(), "Product", 10.0, time, time);
+        Order order = new Order(UUID.randomUUID().toString(), "Order", time, time, List.of(snapshot));
+        given(orderProductSnapshots.isEnabled()).willReturn(true);
+
+        List<OrderViewDto> views = orderViewAssembler.assemble(List.of(order));
+
+        assertEquals(1, views.size());
+        assertEquals(1, views.get(0).getProducts().size());
+        assertEquals(snapshot.getProductId(), views.get(0).getProducts().get(0).getProductId());
+        assertEquals(snapshot.getProductName(), views.get(0).getProducts().get(0).getProductName());
+        verify(linksOrdersProductsRepository, never()).findLinkIdsByOrderIdIn(anyCollection());
+    }
+
+    private static Order newOrder(String name) {
+        long time = System.currentTimeMillis();
+        return new Order(UUID.randomUUID().toString(), name, time, time);
+    }
+
+    private static LinkOrderProducts newLink(String orderId, String productId) {
+        LinkOrderProducts link = new LinkOrderProducts();
+        link.setOrderId(orderId);
+        link.setProductId(productId);
+        return link;
+    }
+}
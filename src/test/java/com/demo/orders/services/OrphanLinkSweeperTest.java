@@ -0,0 +1,67 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.entities.LinkOrderProducts;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrphanLinkSweeperTest extends IntegrationTestsBase {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("orphanLinkSweepBatchSize", () -> 2);
+    }
+
+    @Autowired
+    OrphanLinkSweeper orphanLinkSweeper;
+
+    @Test
+    void sweep_ShouldDeleteLinksOfMissingOrdersAndProducts() {
+        long time = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time));
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 10.0, time, time));
+        long hourAgo = time - 3_600_000;
+        LinkOrderProducts kept = linksOrdersProductsRepository.save(newLink(hourAgo, order.getOrderId(), product.getProductId()));
+        linksOrdersProductsRepository.save(newLink(hourAgo, UUID.randomUUID().toString(), product.getProductId()));
+        linksOrdersProductsRepository.save(newLink(hourAgo, order.getOrderId(), UUID.randomUUID().toString()));
+        linksOrdersProductsRepository.save(newLink(hourAgo, UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+
+        assertEquals(3, orphanLinkSweeper.sweep());
+
+        assertEquals(List.of(kept.getId()), linksOrdersProductsRepository.findAll().stream().map(LinkOrderProducts::getId).toList());
+        assertEquals(0, orphanLinkSweeper.sweep());
+    }
+
+    @Test
+    void sweep_ShouldSkipLinksWithinGracePeriod() {
+        LinkOrderProducts recent = linksOrdersProductsRepository.save(newLink(System.currentTimeMillis(), UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+
+        assertEquals(0, orphanLinkSweeper.sweep());
+
+        assertTrue(linksOrdersProductsRepository.existsById(recent.getId()));
+    }
+
+    private static LinkOrderProducts newLink(long createdAt, String orderId, String productId) {
+        LinkOrderProducts link = new LinkOrderProducts();
+        link.setId(new ObjectId(new Date(createdAt)).toHexString());
+        link.setOrderId(orderId);
+        link.setProductId(productId);
+        return link;
+    }
+}
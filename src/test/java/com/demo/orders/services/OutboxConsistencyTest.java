@@ -0,0 +1,84 @@
+package com.demo.orders.services;
+
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.OutboxEntry;
+import com.demo.orders.repo.entities.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {"consistencyEngine=OUTBOX", "outboxRelayDelaySeconds=0", "embeddedProductSnapshots=true"})
+class OutboxConsistencyTest extends IntegrationTestsBase {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    TransactionalInvoker transactionalInvoker;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @AfterEach
+    void clearOutbox() {
+        mongoOperations.remove(new Query(), OutboxEntry.class);
+    }
+
+    @Test
+    void completedTask_ShouldLeaveNoEntry() {
+        long time = System.currentTimeMillis();
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time));
+
+        await(orderService.deleteOrder(order.getOrderId()));
+
+        assertFalse(ordersRepository.existsById(order.getOrderId()));
+        assertEquals(0, mongoOperations.count(new Query(), OutboxEntry.class));
+    }
+
+    @Test
+    void relay_ShouldFinishTaskCutOffMidway() {
+        long time = System.currentTimeMillis();
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 10.0, time, time));
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time, List.of()));
+        linksOrdersProductsRepository.linkAll(order.getOrderId(), List.of(product.getProductId()));
+
+        // the product is gone, its links and snapshots were not reached
+        assertThrows(IllegalStateException.class, () -> transactionalInvoker.invokeTransactional(() -> {
+            productsRepository.deleteById(product.getProductId());
+            throw new IllegalStateException("Cut off");
+        }, OutboxEntry.of(OutboxEntry.Action.DELETE_PRODUCTS, List.of(product.getProductId()))));
+
+        assertEquals(1, outboxRelay.relay());
+
+        assertTrue(linksOrdersProductsRepository.findByOrderId(order.getOrderId()).isEmpty());
+        assertEquals(0, mongoOperations.count(new Query(), OutboxEntry.class));
+        assertEquals(0, outboxRelay.relay());
+    }
+
+    private void await(SubmittedOperationDto submitted) {
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+    }
+}
@@ -0,0 +1,106 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.ProductsRepository;
+import com.demo.orders.repo.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock
+    private ProductsRepository productsRepository;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(productsRepository, 100, 60, 60);
+    }
+
+    @Test
+    void get_ShouldLoadOnce() {
+        Product product = newProduct();
+        given(productsRepository.findById(product.getProductId())).willReturn(Optional.of(product));
+
+        assertEquals(Optional.of(product), productCache.get(product.getProductId()));
+        assertEquals(Optional.of(product), productCache.get(product.getProductId()));
+
+        verify(productsRepository, times(1)).findById(product.getProductId());
+    }
+
+    @Test
+    void get_ShouldRememberMissingProducts() {
+        String id = UUID.randomUUID().toString();
+        given(productsRepository.findById(id)).willReturn(Optional.empty());
+
+        assertTrue(productCache.get(id).isEmpty());
+        assertTrue(productCache.get(id).isEmpty());
+
+        verify(productsRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void invalidate_ShouldReload() {
+        Product product = newProduct();
+        given(productsRepository.findById(product.getProductId())).willReturn(Optional.empty(), Optional.of(product));
+
+        assertTrue(productCache.get(product.getProductId()).isEmpty());
+        productCache.invalidate(product.getProductId());
+
+        assertEquals(Optional.of(product), productCache.get(product.getProductId()));
+    }
+
+    @Test
+    void getAll_ShouldQueryOnlyMisses() {
+        Product cached = newProduct();
+        Product loaded = newProduct();
+        String missing = UUID.randomUUID().toString();
+        given(productsRepository.findById(cached.getProductId())).willReturn(Optional.of(cached));
+        given(productsRepository.findByProductIdIn(anyList())).willReturn(List.of(loaded));
+        productCache.get(cached.getProductId());
+
+        List<Product> products = productCache.getAll(List.of(loaded.getProductId(), cached.getProductId(), missing));
+
+        assertEquals(List.of(loaded, cached), products);
+        verify(productsRepository).findByProductIdIn(argThat(ids -> ids.size() == 2 && !ids.contains(cached.getProductId())));
+
+        productCache.getAll(List.of(loaded.getProductId(), missing));
+        verify(productsRepository, times(1)).findByProductIdIn(anyList());
+    }
+
+    @Test
+    void getAll_ShouldNotCacheProductInvalidatedWhileLoading() {
+        Product stale = newProduct();
+        given(productsRepository.findByProductIdIn(anyList())).willAnswer(invocation -> {
+            // an update commits and invalidates while the bulk read is in flight
+            productCache.invalidate(stale.getProductId());
+            return List.of(stale);
+        });
+
+        assertEquals(List.of(stale), productCache.getAll(List.of(stale.getProductId())));
+        productCache.getAll(List.of(stale.getProductId()));
+
+        verify(productsRepository, times(2)).findByProductIdIn(anyList());
+    }
+
+    private static Product newProduct() {
+        long time = System.currentTimeMillis();
+        return new Product(UUID.randomUUID().toString(), "Product", 10.0, time, time);
+    }
+}
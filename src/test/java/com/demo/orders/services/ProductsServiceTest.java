@@ -31,7 +31,7 @@ class ProductsServiceTest extends IntegrationTestsBase {
     @Test
     void testCreateProduct() {
         ProductDto productDto = new ProductDto(UUID.randomUUID().toString(), "Test Product", 29.99);
-        String productId = productsService.createProduct(productDto);
+        String productId = productsService.createProduct(productDto).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> productsRepository.existsById(productId), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -45,7 +45,7 @@ class ProductsServiceTest extends IntegrationTestsBase {
     @Test
     void testGetProductById() {
         ProductDto productDto = new ProductDto(UUID.randomUUID().toString(), "Test Product", 29.99);
-        String productId = productsService.createProduct(productDto);
+        String productId = productsService.createProduct(productDto).getId();
 
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> productsRepository.existsById(productId), Duration.ofSeconds(2), Duration.ofMillis(100));
         Assertions.assertTrue(status);
@@ -65,7 +65,7 @@ class ProductsServiceTest extends IntegrationTestsBase {
     @Test
     void testUpdateProduct() {
         ProductDto productDto = new ProductDto(UUID.randomUUID().toString(), "Test Product", 29.99);
-        String productId = productsService.createProduct(productDto);
+        String productId = productsService.createProduct(productDto).getId();
 
         String finalProductId1 = productId;
         boolean status = CommonTestUtils.waitForResultWithTimeout(() -> productsRepository.existsById(finalProductId1), Duration.ofSeconds(2), Duration.ofMillis(100));
@@ -73,7 +73,7 @@ class ProductsServiceTest extends IntegrationTestsBase {
         ProductDto updateDto = new ProductDto(productId, "Updated Product", 39.99);
 
         long currTime = System.currentTimeMillis();
-        productId = productsService.updateProduct(productId, updateDto);
+        productId = productsService.updateProduct(productId, updateDto).getId();
 
         String finalProductId = productId;
         status = CommonTestUtils.waitForResultWithTimeout(() -> productsRepository.findById(finalProductId).get().getUpdateDate() >= currTime, Duration.ofSeconds(2), Duration.ofMillis(100));
@@ -88,7 +88,7 @@ class ProductsServiceTest extends IntegrationTestsBase {
     @Test
     void testDeleteProduct() {
         ProductDto productDto = new ProductDto(UUID.randomUUID().toString(), "Test Product", 29.99);
-        String productId = productsService.createProduct(productDto);
+        String productId = productsService.createProduct(productDto).getId();
 
         productsService.deleteProduct(productId);
 
@@ -0,0 +1,195 @@
+package com.demo.orders.services;
+
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.OrderDto;
+import com.demo.orders.dtos.ProductDto;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the service flows against a database with the indexes of IndexManager, records every query
+ * the repositories send and fails when the plan the server picks for one of them scans the whole
+ * collection. Queries without a filter read everything on purpose and are left out.
+ */
+@TestPropertySource(properties = "embeddedProductSnapshots=true")
+class QueryPlansTest extends IntegrationTestsBase {
+    private static final Set<String> QUERIES = Set.of("find", "count", "aggregate", "distinct", "findAndModify", "update", "delete");
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Autowired
+    CommandCapture commandCapture;
+
+    @Autowired
+    ProductSnapshotReconciler productSnapshotReconciler;
+
+    @Test
+    void repositoryQueries_ShouldNotScanCollections() {
+        String firstProductId = await(productsService.createProduct(new ProductDto(null, "First", 10.0)));
+        String secondProductId = await(productsService.createProduct(new ProductDto(null, "Second", 12.0)));
+        String thirdProductId = await(productsService.createProduct(new ProductDto(null, "Third", 14.0)));
+        String orderId = await(orderService.createOrder(new OrderDto("Order")));
+        await(orderService.addProductToOrder(orderId, firstProductId));
+        orderService.addProductsToOrder(orderId, List.of(secondProductId, thirdProductId));
+        orderService.getOrderById(orderId);
+        orderService.getOrdersPage(orderId, 10);
+        productsService.getProductById(firstProductId);
+        await(productsService.updateProduct(firstProductId, new ProductDto(null, "Renamed", 11.0)));
+        await(orderService.removeProductFromOrder(orderId, firstProductId));
+        orderService.removeProductsFromOrder(orderId, List.of(secondProductId));
+        await(productsService.deleteProduct(thirdProductId));
+        productSnapshotReconciler.reconcile();
+        await(orderService.deleteOrder(orderId));
+
+        List<String> scans = new ArrayList<>();
+        for (CapturedQuery query : commandCapture.queries) {
+            Document plan = explain(query);
+            if (hasStage(plan, "COLLSCAN")) {
+                scans.add(query.collection() + " " + query.filter().toJson());
+            }
+        }
+        assertFalse(commandCapture.queries.isEmpty());
+        assertEquals(List.of(), scans);
+    }
+
+    @Test
+    void linkIdQueries_ShouldBeCoveredByIndex() {
+        String productId = await(productsService.createProduct(new ProductDto(null, "Product", 10.0)));
+        String orderId = await(orderService.createOrder(new OrderDto("Order")));
+        await(orderService.addProductToOrder(orderId, productId));
+        commandCapture.queries.clear();
+
+        assertEquals(productId, linksOrdersProductsRepository.findLinkIdsByOrderId(orderId).get(0).getProductId());
+        assertEquals(productId, linksOrdersProductsRepository.findLinkIdsByOrderIdIn(List.of(orderId)).get(0).getProductId());
+
+        List<CapturedQuery> projected = commandCapture.queries.stream().filter(query -> query.projection() != null).toList();
+        assertEquals(2, projected.size());
+        for (CapturedQuery query : projected) {
+            Document plan = explain(query);
+            assertFalse(hasStage(plan, "FETCH"), query.filter().toJson());
+            assertTrue(hasStage(plan, "IXSCAN"), query.filter().toJson());
+        }
+    }
+
+    private Document explain(CapturedQuery query) {
+        Document find = new Document("find", query.collection()).append("filter", query.filter());
+        if (query.sort() != null) {
+            find.append("sort", query.sort());
+        }
+        if (query.projection() != null) {
+            find.append("projection", query.projection());
+        }
+        return mongoOperations.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    private static boolean hasStage(Document explained, String name) {
+        return hasStage(explained.get("queryPlanner", Document.class).get("winningPlan"), name);
+    }
+
+    private static boolean hasStage(Object plan, String name) {
+        if (plan instanceof Document stage) {
+            return name.equals(stage.get("stage")) || stage.values().stream().anyMatch(child -> hasStage(child, name));
+        }
+        if (plan instanceof List<?> stages) {
+            return stages.stream().anyMatch(child -> hasStage(child, name));
+        }
+        return false;
+    }
+
+    private String await(SubmittedOperationDto submitted) {
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+        return submitted.getId();
+    }
+
+    record CapturedQuery(String collection, BsonDocument filter, BsonDocument sort, BsonDocument projection) {
+    }
+
+    static class CommandCapture implements CommandListener {
+        final Queue<CapturedQuery> queries = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (!QUERIES.contains(event.getCommandName())) {
+                return;
+            }
+            BsonDocument command = event.getCommand();
+            String collection = command.getString(event.getCommandName()).getValue();
+            switch (event.getCommandName()) {
+                case "find" -> add(collection, command.getDocument("filter", new BsonDocument()), command.getDocument("sort", null), command.getDocument("projection", null));
+                case "count", "distinct", "findAndModify" -> add(collection, command.getDocument("query", new BsonDocument()));
+                case "aggregate" -> {
+                    BsonArray pipeline = command.getArray("pipeline");
+                    if (!pipeline.isEmpty() && pipeline.get(0).asDocument().containsKey("$match")) {
+                        add(collection, pipeline.get(0).asDocument().getDocument("$match"));
+                    }
+                }
+                case "update" -> statements(command, "updates").forEach(statement -> add(collection, statement.asDocument().getDocument("q")));
+                case "delete" -> statements(command, "deletes").forEach(statement -> add(collection, statement.asDocument().getDocument("q")));
+                default -> {
+                }
+            }
+        }
+
+        private static List<BsonValue> statements(BsonDocument command, String key) {
+            return command.containsKey(key) ? command.getArray(key) : List.of();
+        }
+
+        private void add(String collection, BsonDocument filter) {
+            add(collection, filter, null, null);
+        }
+
+        private void add(String collection, BsonDocument filter, BsonDocument sort, BsonDocument projection) {
+            if (!filter.isEmpty()) {
+                queries.add(new CapturedQuery(collection, filter.clone(), sort == null ? null : sort.clone(), projection == null ? null : projection.clone()));
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CommandCaptureConfiguration {
+
+        @Bean
+        CommandCapture commandCapture() {
+            return new CommandCapture();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCaptureCustomizer(CommandCapture commandCapture) {
+            return settings -> settings.addCommandListener(commandCapture);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.demo.orders.services;
+
+import com.demo.orders.repo.entities.OutboxEntry;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionalInvokerTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private OutboxActions outboxActions;
+
+    @Test
+    void none_ShouldRunOnceWithoutRecording() {
+        AtomicInteger runs = new AtomicInteger();
+
+        invoker(ConsistencyEngine.NONE).invokeTransactional(runs::incrementAndGet, entry());
+
+        assertEquals(1, runs.get());
+        verifyNoInteractions(mongoOperations, transactionManager);
+    }
+
+    @Test
+    void transactions_ShouldRetryTransientErrors() {
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        AtomicInteger runs = new AtomicInteger();
+
+        invoker(ConsistencyEngine.TRANSACTIONS).invokeTransactional(() -> {
+            if (runs.incrementAndGet() < 3) {
+                throw new UncategorizedMongoDbException("Write conflict", transientError());
+            }
+        });
+
+        assertEquals(3, runs.get());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void transactions_ShouldGiveUpAfterMaxAttempts() {
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(UncategorizedMongoDbException.class, () -> invoker(ConsistencyEngine.TRANSACTIONS).invokeTransactional(() -> {
+            runs.incrementAndGet();
+            throw new UncategorizedMongoDbException("Write conflict", transientError());
+        }));
+
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    void transactions_ShouldNotRetryOtherErrors() {
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> invoker(ConsistencyEngine.TRANSACTIONS).invokeTransactional(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void outbox_ShouldRemoveEntryOfCompletedTask() {
+        OutboxEntry entry = entry();
+
+        invoker(ConsistencyEngine.OUTBOX).invokeTransactional(entry);
+
+        verify(mongoOperations).insert(entry);
+        verify(outboxActions).apply(entry);
+        verify(mongoOperations).remove(entry);
+    }
+
+    @Test
+    void outbox_ShouldKeepEntryOfFailedTask() {
+        OutboxEntry entry = entry();
+
+        assertThrows(IllegalStateException.class, () -> invoker(ConsistencyEngine.OUTBOX).invokeTransactional(() -> {
+            throw new IllegalStateException();
+        }, entry));
+
+        verify(mongoOperations).insert(entry);
+        verify(mongoOperations, never()).remove(any());
+    }
+
+    @Test
+    void outbox_ShouldNotRecordTasksWithoutRecovery() {
+        AtomicInteger runs = new AtomicInteger();
+
+        invoker(ConsistencyEngine.OUTBOX).invokeTransactional(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+        verifyNoInteractions(mongoOperations);
+    }
+
+    private TransactionalInvoker invoker(ConsistencyEngine engine) {
+        return new TransactionalInvoker(transactionManager, mongoOperations, outboxActions, engine, 3);
+    }
+
+    private static OutboxEntry entry() {
+        return OutboxEntry.of(OutboxEntry.Action.DELETE_ORDERS, List.of("123e4567-e89b-12d3-a456-426614174000"));
+    }
+
+    private static MongoException transientError() {
+        BsonDocument response = new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(112))
+                .append("errmsg", new BsonString("WriteConflict"));
+        MongoException error = new MongoCommandException(response, null);
+        error.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        return error;
+    }
+}
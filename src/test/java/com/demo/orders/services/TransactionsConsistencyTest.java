@@ -0,0 +1,67 @@
+package com.demo.orders.services;
+
+import com.demo.orders.dtos.OperationStatus;
+import com.demo.orders.dtos.SubmittedOperationDto;
+import com.demo.orders.repo.entities.Order;
+import com.demo.orders.repo.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The container runs a single node replica set, which is all multi-document transactions need.
+ */
+@TestPropertySource(properties = "consistencyEngine=TRANSACTIONS")
+class TransactionsConsistencyTest extends IntegrationTestsBase {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0.3");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    TransactionalInvoker transactionalInvoker;
+
+    @Test
+    void failedTask_ShouldLeaveNoWrites() {
+        long time = System.currentTimeMillis();
+        Order order = new Order(UUID.randomUUID().toString(), "Order", time, time);
+
+        assertThrows(IllegalStateException.class, () -> transactionalInvoker.invokeTransactional(() -> {
+            ordersRepository.save(order);
+            throw new IllegalStateException("Cut off");
+        }));
+
+        assertFalse(ordersRepository.existsById(order.getOrderId()));
+    }
+
+    @Test
+    void deleteProduct_ShouldDeleteProductAndLinksTogether() {
+        long time = System.currentTimeMillis();
+        Product product = productsRepository.save(new Product(UUID.randomUUID().toString(), "Product", 10.0, time, time));
+        Order order = ordersRepository.save(new Order(UUID.randomUUID().toString(), "Order", time, time));
+        linksOrdersProductsRepository.linkAll(order.getOrderId(), List.of(product.getProductId()));
+
+        await(productsService.deleteProduct(product.getProductId()));
+
+        assertFalse(productsRepository.existsById(product.getProductId()));
+        assertTrue(linksOrdersProductsRepository.findByOrderId(order.getOrderId()).isEmpty());
+    }
+
+    private void await(SubmittedOperationDto submitted) {
+        assertEquals(OperationStatus.COMPLETED, operationRegistry.awaitStatus(submitted.getOperationId(), Duration.ofSeconds(2)).join().getStatus());
+    }
+}
@@ -0,0 +1,92 @@
+package com.demo.orders.services.executors;
+
+import com.demo.orders.exceptions.TaskRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class MicroBatcherTest {
+    private final ConcurrentLinkedQueue<List<Integer>> flushed = new ConcurrentLinkedQueue<>();
+    private MicroBatcher<Integer> batcher;
+
+    @AfterEach
+    public void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void testFlushWhenBatchIsFull() throws Exception {
+        batcher = new MicroBatcher<>("test", 3, 60_000, this::record);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(batcher.submit(i));
+        }
+
+        for (CompletableFuture<Void> future : futures) {
+            future.get(1, TimeUnit.SECONDS);
+        }
+        Assertions.assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5)), new ArrayList<>(flushed));
+    }
+
+    @Test
+    void testFlushAfterLinger() throws Exception {
+        batcher = new MicroBatcher<>("test", 100, 5, this::record);
+
+        CompletableFuture<Void> first = batcher.submit(1);
+        CompletableFuture<Void> second = batcher.submit(2);
+
+        first.get(1, TimeUnit.SECONDS);
+        second.get(1, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of(List.of(1, 2)), new ArrayList<>(flushed));
+    }
+
+    @Test
+    void testFailedFlushFailsEveryItem() {
+        batcher = new MicroBatcher<>("test", 100, 5, items -> CompletableFuture.failedFuture(new IllegalStateException("expected")));
+
+        CompletableFuture<Void> first = batcher.submit(1);
+        CompletableFuture<Void> second = batcher.submit(2);
+
+        Assertions.assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        Assertions.assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPartialFailureFailsOnlyThoseItems() throws Exception {
+        batcher = new MicroBatcher<>("test", 3, 60_000, items -> CompletableFuture.completedFuture(Map.of(1, new IllegalStateException("expected"))));
+
+        CompletableFuture<Void> first = batcher.submit(1);
+        CompletableFuture<Void> second = batcher.submit(2);
+        CompletableFuture<Void> third = batcher.submit(3);
+
+        first.get(1, TimeUnit.SECONDS);
+        third.get(1, TimeUnit.SECONDS);
+        Assertions.assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectedFlushReachesCaller() {
+        batcher = new MicroBatcher<>("test", 2, 60_000, items -> {
+            throw new TaskRejectedException("expected");
+        });
+
+        CompletableFuture<Void> first = batcher.submit(1);
+
+        Assertions.assertThrows(TaskRejectedException.class, () -> batcher.submit(2));
+        Assertions.assertTrue(first.isCompletedExceptionally());
+    }
+
+    private CompletableFuture<Map<Integer, Throwable>> record(List<Integer> items) {
+        flushed.add(items);
+        return CompletableFuture.completedFuture(Map.of());
+    }
+}
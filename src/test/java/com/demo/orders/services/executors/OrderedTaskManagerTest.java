@@ -5,8 +5,20 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.demo.orders.CommonTestUtils;
+import com.demo.orders.exceptions.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class OrderedTaskManagerTest {
@@ -14,7 +26,7 @@ class OrderedTaskManagerTest {
 
     @BeforeEach
     public void setUp() {
-        orderedTaskManager = new OrderedTaskManager(4);
+        orderedTaskManager = new OrderedTaskManager("test", 4, new QueueLimits(100_000, RejectionPolicy.BLOCK, 1000));
     }
 
     @AfterEach
@@ -46,4 +58,270 @@ class OrderedTaskManagerTest {
         latch.await();
         Assertions.assertEquals(100, count.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStrictFifoPerKeyUnderContention() throws InterruptedException {
+        int producers = 8;
+        int keysPerProducer = 250;
+        int tasksPerKey = 40;
+        int numberOfKeys = producers * keysPerProducer;
+        List<String> keys = new ArrayList<>();
+        List<ConcurrentLinkedQueue<Integer>> executed = new ArrayList<>();
+        List<AtomicBoolean> running = new ArrayList<>();
+        for (int i = 0; i < numberOfKeys; i++) {
+            keys.add(UUID.randomUUID().toString());
+            executed.add(new ConcurrentLinkedQueue<>());
+            running.add(new AtomicBoolean());
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(numberOfKeys * tasksPerKey);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int seq = 0; seq < tasksPerKey; seq++) {
+                    for (int k = producer; k < numberOfKeys; k += producers) {
+                        int key = k;
+                        int value = seq;
+                        orderedTaskManager.submitTask(keys.get(key), () -> {
+                            if (!running.get(key).compareAndSet(false, true)) {
+                                overlaps.incrementAndGet();
+                            }
+                            executed.get(key).add(value);
+                            running.get(key).set(false);
+                            done.countDown();
+                        });
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, overlaps.get());
+        for (ConcurrentLinkedQueue<Integer> values : executed) {
+            Assertions.assertEquals(tasksPerKey, values.size());
+            int expected = 0;
+            for (Integer value : values) {
+                Assertions.assertEquals(expected++, value);
+            }
+        }
+        Assertions.assertTrue(CommonTestUtils.waitForResultWithTimeout(() -> orderedTaskManager.activeKeys() == 0, Duration.ofSeconds(2), Duration.ofMillis(10)));
+    }
+
+    @Test
+    void testFailedTaskDoesNotBlockKey() throws InterruptedException {
+        String orderId = UUID.randomUUID().toString();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        orderedTaskManager.submitTask(orderId, () -> {
+            throw new IllegalStateException("expected");
+        });
+        orderedTaskManager.submitTask(orderId, latch::countDown);
+
+        Assertions.assertTrue(latch.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testErrorFailsTaskAndDoesNotBlockKey() throws Exception {
+        String orderId = UUID.randomUUID().toString();
+
+        CompletableFuture<Void> failed = orderedTaskManager.submitTask(orderId, () -> {
+            throw new AssertionError("expected");
+        });
+        CompletableFuture<Void> next = orderedTaskManager.submitTask(orderId, () -> {
+        });
+
+        next.get(2, TimeUnit.SECONDS);
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> failed.get(2, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(AssertionError.class, e.getCause());
+    }
+
+    @Test
+    void testRejectWhenCapacityIsExhausted() throws InterruptedException {
+        OrderedTaskManager manager = new OrderedTaskManager("test", 1, new QueueLimits(2, RejectionPolicy.REJECT, 0));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            manager.submitTask("key", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            manager.submitTask("other", () -> {
+            });
+
+            Assertions.assertEquals(2, manager.queueDepth());
+            Assertions.assertThrows(TaskRejectedException.class, () -> manager.submitTask("key", () -> {
+            }));
+        } finally {
+            release.countDown();
+            manager.shutdown();
+        }
+        Assertions.assertTrue(CommonTestUtils.waitForResultWithTimeout(() -> manager.queueDepth() == 0, Duration.ofSeconds(2), Duration.ofMillis(10)));
+    }
+
+    @Test
+    void testTaskWaitsForDependencyWithoutBlockingOtherKeys() throws Exception {
+        OrderedTaskManager manager = new OrderedTaskManager("test", 1, new QueueLimits(10, RejectionPolicy.BLOCK, 1000));
+        try {
+            CompletableFuture<Void> dependency = new CompletableFuture<>();
+            ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+
+            CompletableFuture<Void> awaiting = manager.submitTask("key", dependency, () -> executed.add("awaiting"));
+            CompletableFuture<Void> next = manager.submitTask("key", () -> executed.add("next"));
+            manager.submitTask("other", () -> executed.add("other")).get(2, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(List.of("other"), new ArrayList<>(executed));
+            dependency.complete(null);
+            next.get(2, TimeUnit.SECONDS);
+
+            Assertions.assertTrue(awaiting.isDone());
+            Assertions.assertEquals(List.of("other", "awaiting", "next"), new ArrayList<>(executed));
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    void testKeyKeepsOrderAcrossLanes() throws Exception {
+        SharedTaskPool pool = new SharedTaskPool("test", 4, ExecutionMode.PLATFORM);
+        QueueLimits limits = new QueueLimits(1000, RejectionPolicy.BLOCK, 1000);
+        TaskExecutor updates = pool.addLane("updates", 1, limits);
+        TaskExecutor deletes = pool.addLane("deletes", 1, limits);
+        OrderedTaskManager manager = new OrderedTaskManager("test", updates);
+        try {
+            ConcurrentLinkedQueue<Integer> executed = new ConcurrentLinkedQueue<>();
+            List<Integer> expected = new ArrayList<>();
+            CompletableFuture<Void> last = null;
+            for (int i = 0; i < 200; i++) {
+                int value = i;
+                expected.add(value);
+                last = manager.submitTask("key", i % 3 == 0 ? deletes : updates, null, () -> executed.add(value));
+            }
+            last.get(2, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(expected, new ArrayList<>(executed));
+            Assertions.assertEquals(0, deletes.pendingTasks());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMultiKeyTaskRunsAfterTasksQueuedForEachKey() throws Exception {
+        OrderedTaskManager manager = new OrderedTaskManager("test", 4, new QueueLimits(100, RejectionPolicy.BLOCK, 1000));
+        TaskExecutor lane = new TaskExecutor("test-bulk", 1, new QueueLimits(10, RejectionPolicy.BLOCK, 1000));
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger finished = new AtomicInteger();
+            for (String key : List.of("a", "b", "c")) {
+                manager.submitTask(key, () -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    finished.incrementAndGet();
+                });
+            }
+            AtomicInteger finishedBeforeBulk = new AtomicInteger(-1);
+            CompletableFuture<Void> bulk = manager.submitTask(List.of("a", "b", "c"), lane, null, () -> finishedBeforeBulk.set(finished.get()));
+
+            Assertions.assertFalse(bulk.isDone());
+            release.countDown();
+            bulk.get(2, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(3, finishedBeforeBulk.get());
+            Assertions.assertEquals(0, lane.pendingTasks());
+        } finally {
+            manager.shutdown();
+            lane.shutdown();
+        }
+    }
+
+    @Test
+    void testTasksSubmittedAfterMultiKeyTaskWaitForIt() throws Exception {
+        OrderedTaskManager manager = new OrderedTaskManager("test", 4, new QueueLimits(100, RejectionPolicy.BLOCK, 1000));
+        TaskExecutor lane = new TaskExecutor("test-bulk", 1, new QueueLimits(10, RejectionPolicy.BLOCK, 1000));
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+            CompletableFuture<Void> bulk = manager.submitTask(List.of("a", "b"), lane, null, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executed.add("bulk");
+            });
+            CompletableFuture<Void> later = manager.submitTask("b", () -> executed.add("later"));
+            CompletableFuture<Void> other = manager.submitTask("c", () -> executed.add("other"));
+
+            other.get(2, TimeUnit.SECONDS);
+            Assertions.assertFalse(later.isDone());
+            // the bulk task counts once, however many keys it holds
+            Assertions.assertEquals(2, manager.queueDepth());
+            release.countDown();
+            later.get(2, TimeUnit.SECONDS);
+
+            Assertions.assertTrue(bulk.isDone());
+            Assertions.assertEquals(List.of("other", "bulk", "later"), new ArrayList<>(executed));
+            Assertions.assertEquals(0, manager.queueDepth());
+        } finally {
+            manager.shutdown();
+            lane.shutdown();
+        }
+    }
+
+    @Test
+    void testOverlappingMultiKeyTasksComplete() throws Exception {
+        OrderedTaskManager manager = new OrderedTaskManager("test", 4, new QueueLimits(10_000, RejectionPolicy.BLOCK, 1000));
+        TaskExecutor lane = new TaskExecutor("test-bulk", 4, new QueueLimits(10_000, RejectionPolicy.BLOCK, 1000));
+        try {
+            List<String> keys = List.of("a", "b", "c", "d");
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                int producer = p;
+                producers.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        List<String> rotated = new ArrayList<>(keys);
+                        Collections.rotate(rotated, producer + i);
+                        CompletableFuture<Void> future = i % 3 == 0
+                                ? manager.submitTask(rotated.get(0), () -> {
+                                })
+                                : manager.submitTask(rotated.subList(0, 2 + i % 3), lane, null, () -> {
+                                });
+                        synchronized (futures) {
+                            futures.add(future);
+                        }
+                    }
+                }));
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(0, manager.queueDepth());
+        } finally {
+            manager.shutdown();
+            lane.shutdown();
+        }
+    }
+}
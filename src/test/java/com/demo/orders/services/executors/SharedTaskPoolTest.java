@@ -0,0 +1,120 @@
+package com.demo.orders.services.executors;
+
+import com.demo.orders.CommonTestUtils;
+import com.demo.orders.exceptions.TaskRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SharedTaskPoolTest {
+    private final SharedTaskPool pool = new SharedTaskPool("test", 1, ExecutionMode.PLATFORM);
+    private final QueueLimits limits = new QueueLimits(10_000, RejectionPolicy.REJECT, 0);
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testBusyLaneDoesNotStarveOtherLanes() throws Exception {
+        TaskExecutor bulk = pool.addLane("bulk", 1, limits);
+        TaskExecutor urgent = pool.addLane("urgent", 1, limits);
+        CountDownLatch gate = blockWorker(bulk);
+        AtomicInteger bulkDone = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            bulk.submitTask(bulkDone::incrementAndGet);
+        }
+        AtomicInteger bulkDoneBeforeUrgent = new AtomicInteger(-1);
+        CompletableFuture<Void> urgentTask = urgent.submitTask(() -> bulkDoneBeforeUrgent.set(bulkDone.get()));
+
+        gate.countDown();
+        urgentTask.get(2, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(bulkDoneBeforeUrgent.get() <= 1, "bulk tasks ahead of urgent: " + bulkDoneBeforeUrgent.get());
+    }
+
+    @Test
+    void testLaneWeightsShareTheWorkers() throws Exception {
+        TaskExecutor heavy = pool.addLane("heavy", 3, limits);
+        TaskExecutor light = pool.addLane("light", 1, limits);
+        CountDownLatch gate = blockWorker(heavy);
+        ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(heavy.submitTask(() -> executed.add("heavy")));
+            futures.add(light.submitTask(() -> executed.add("light")));
+        }
+
+        gate.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(2, TimeUnit.SECONDS);
+
+        long heavyInFirstHundred = executed.stream().limit(100).filter("heavy"::equals).count();
+        Assertions.assertTrue(heavyInFirstHundred >= 70 && heavyInFirstHundred <= 80, "heavy tasks in the first 100: " + heavyInFirstHundred);
+    }
+
+    @Test
+    void testDrainRunsAcceptedTasksAndRejectsNewOnes() throws Exception {
+        TaskExecutor lane = pool.addLane("lane", 1, limits);
+        CountDownLatch gate = blockWorker(lane);
+        List<CompletableFuture<Void>> accepted = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accepted.add(lane.submitTask(() -> {
+            }));
+        }
+
+        CompletableFuture<Boolean> drained = CompletableFuture.supplyAsync(() -> pool.drain(Duration.ofSeconds(2)));
+        Assertions.assertTrue(CommonTestUtils.waitForResultWithTimeout(pool::isClosed, Duration.ofSeconds(2), Duration.ofMillis(10)));
+        Assertions.assertThrows(TaskRejectedException.class, () -> lane.submitTask(() -> {
+        }));
+        gate.countDown();
+
+        Assertions.assertTrue(drained.get(3, TimeUnit.SECONDS));
+        accepted.forEach(future -> Assertions.assertTrue(future.isDone()));
+        Assertions.assertEquals(0, lane.pendingTasks());
+    }
+
+    @Test
+    void testWorkerSurvivesFailingTask() throws Exception {
+        TaskExecutor lane = pool.addLane("lane", 1, limits);
+        lane.execute(() -> {
+            throw new IllegalStateException("escaped the lane");
+        });
+
+        // the pool has a single worker, it has to be the one that ran the failing task
+        lane.submitTask(() -> {
+        }).get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testDrainGivesUpAfterTimeout() throws Exception {
+        TaskExecutor lane = pool.addLane("lane", 1, limits);
+        CountDownLatch gate = blockWorker(lane);
+
+        Assertions.assertFalse(pool.drain(Duration.ofMillis(50)));
+        gate.countDown();
+    }
+
+    private static CountDownLatch blockWorker(TaskExecutor lane) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        lane.submitTask(() -> {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assertions.assertTrue(started.await(2, TimeUnit.SECONDS));
+        return gate;
+    }
+}
@@ -0,0 +1,131 @@
+package com.demo.orders.services.executors;
+
+import com.demo.orders.exceptions.TaskRejectedException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class TaskExecutorTest {
+    private TaskExecutor taskExecutor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void testRejectWhenQueueIsFull() throws InterruptedException {
+        taskExecutor = saturatedExecutor(RejectionPolicy.REJECT);
+
+        Assertions.assertThrows(TaskRejectedException.class, () -> taskExecutor.submitTask(() -> {
+        }));
+    }
+
+    @Test
+    void testCapacityIsFreeOnceFutureCompletes() throws Exception {
+        taskExecutor = new TaskExecutor("test", 1, new QueueLimits(1, RejectionPolicy.REJECT, 0));
+
+        for (int i = 0; i < 1000; i++) {
+            taskExecutor.submitTask(() -> {
+            }).get(1, TimeUnit.SECONDS);
+        }
+
+        Assertions.assertEquals(0, taskExecutor.pendingTasks());
+    }
+
+    @Test
+    void testBlockTimesOutWhenQueueIsFull() throws InterruptedException {
+        taskExecutor = saturatedExecutor(RejectionPolicy.BLOCK);
+
+        long start = System.nanoTime();
+        Assertions.assertThrows(TaskRejectedException.class, () -> taskExecutor.submitTask(() -> {
+        }));
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    void testCallerRunsWhenQueueIsFull() throws InterruptedException {
+        taskExecutor = saturatedExecutor(RejectionPolicy.CALLER_RUNS);
+        AtomicReference<Thread> executedBy = new AtomicReference<>();
+
+        CompletableFuture<Void> future = taskExecutor.submitTask(() -> executedBy.set(Thread.currentThread()));
+
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertEquals(Thread.currentThread(), executedBy.get());
+    }
+
+    @Test
+    void testFailedTaskCompletesFutureExceptionally() {
+        taskExecutor = new TaskExecutor("test", 1, new QueueLimits(10, RejectionPolicy.REJECT, 0));
+
+        CompletableFuture<Void> failed = taskExecutor.submitTask(() -> {
+            throw new IllegalStateException("expected");
+        });
+        CompletableFuture<Void> next = taskExecutor.submitTask(() -> {
+        });
+
+        Assertions.assertThrows(Exception.class, () -> failed.get(2, TimeUnit.SECONDS));
+        Assertions.assertDoesNotThrow(() -> next.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRecordsQueueWaitAndExecutionPerLane() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            taskExecutor = new TaskExecutor("test-timed", 1, new QueueLimits(10, RejectionPolicy.REJECT, 0));
+            CountDownLatch started = new CountDownLatch(1);
+            taskExecutor.submitTask(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Assertions.assertTrue(started.await(2, TimeUnit.SECONDS));
+            CompletableFuture<Void> queued = taskExecutor.submitTask(() -> {
+            });
+            Thread.sleep(50);
+            release.countDown();
+            queued.get(2, TimeUnit.SECONDS);
+
+            Timer queueWait = registry.get("tasks.queue.wait").tag("lane", "test-timed").timer();
+            Timer execution = registry.get("tasks.execution").tag("lane", "test-timed").timer();
+            Assertions.assertEquals(2, queueWait.count());
+            Assertions.assertTrue(queueWait.max(TimeUnit.MILLISECONDS) >= 50);
+            Assertions.assertEquals(2, execution.count());
+            Assertions.assertTrue(execution.max(TimeUnit.MILLISECONDS) >= 50);
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    private TaskExecutor saturatedExecutor(RejectionPolicy policy) throws InterruptedException {
+        TaskExecutor executor = new TaskExecutor("test", 1, new QueueLimits(2, policy, 50));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submitTask(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assertions.assertTrue(started.await(2, TimeUnit.SECONDS));
+        executor.submitTask(() -> {
+        });
+        Assertions.assertEquals(2, executor.pendingTasks());
+        return executor;
+    }
+}
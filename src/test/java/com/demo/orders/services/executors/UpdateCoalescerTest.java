@@ -0,0 +1,86 @@
+package com.demo.orders.services.executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class UpdateCoalescerTest {
+    private OrderedTaskManager orderedTaskManager;
+    private UpdateCoalescer<Map<String, Object>> coalescer;
+    private final ConcurrentLinkedQueue<String> writes = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() {
+        orderedTaskManager = new OrderedTaskManager("test", 2, new QueueLimits(100, RejectionPolicy.BLOCK, 1000));
+        coalescer = new UpdateCoalescer<>(orderedTaskManager, UpdateCoalescer::mergeFields, (key, fields) -> writes.add(key + fields));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        orderedTaskManager.shutdown();
+    }
+
+    @Test
+    void testQueuedUpdatesAreMergedIntoOneWrite() throws Exception {
+        blockKey("key");
+
+        CompletableFuture<Void> first = coalescer.submit("key", Map.of("name", "first", "price", 1.0));
+        CompletableFuture<Void> second = coalescer.submit("key", Map.of("name", "second"));
+        CompletableFuture<Void> third = coalescer.submit("key", Map.of("price", 3.0));
+        release.countDown();
+
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first, third);
+        first.get(2, TimeUnit.SECONDS);
+        Assertions.assertEquals(1, writes.size());
+        Assertions.assertTrue(writes.peek().contains("name=second"));
+        Assertions.assertTrue(writes.peek().contains("price=3.0"));
+    }
+
+    @Test
+    void testSealedUpdateIsNotOvertaken() throws Exception {
+        blockKey("key");
+
+        CompletableFuture<Void> before = coalescer.submit("key", Map.of("name", "before"));
+        coalescer.seal("key");
+        orderedTaskManager.submitTask("key", () -> writes.add("delete"));
+        CompletableFuture<Void> after = coalescer.submit("key", Map.of("name", "after"));
+        release.countDown();
+
+        Assertions.assertNotSame(before, after);
+        after.get(2, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("key{name=before}", "delete", "key{name=after}"), new ArrayList<>(writes));
+    }
+
+    @Test
+    void testUpdateAfterWriteStartedIsWrittenSeparately() throws Exception {
+        coalescer.submit("key", Map.of("name", "first")).get(2, TimeUnit.SECONDS);
+        coalescer.submit("key", Map.of("name", "second")).get(2, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of("key{name=first}", "key{name=second}"), new ArrayList<>(writes));
+    }
+
+    private void blockKey(String key) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        orderedTaskManager.submitTask(key, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assertions.assertTrue(started.await(2, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,95 @@
+package com.demo.orders.services.ids;
+
+import com.demo.orders.CommonUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testGeneratesVersion7Ids() {
+        long now = System.currentTimeMillis();
+        String id = new TimeOrderedIdGenerator(() -> now).newId();
+
+        CommonUtils.validateUUID(id, "id");
+        UUID uuid = UUID.fromString(id);
+        Assertions.assertEquals(7, uuid.version());
+        Assertions.assertEquals(2, uuid.variant());
+        Assertions.assertEquals(now, TimeOrderedIdGenerator.epochMillisOf(uuid));
+    }
+
+    @Test
+    void testIdsIncreaseWithinAndAcrossMillis() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+        String previous = generator.newId();
+        // more ids than the counter holds within one millisecond, and a clock that steps back
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 3000 == 0) {
+                clock.addAndGet(i % 2 == 0 ? 1 : -5);
+            }
+            String id = generator.newId();
+            Assertions.assertTrue(previous.compareTo(id) < 0, previous + " " + id);
+            previous = id;
+        }
+    }
+
+    @Test
+    void testConcurrentIdsAreUniqueAndIncreasing() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    String previous = "";
+                    for (int i = 0; i < 20_000; i++) {
+                        String id = generator.newId();
+                        Assertions.assertTrue(previous.compareTo(id) < 0);
+                        ids.add(id);
+                        previous = id;
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        }
+        Assertions.assertEquals(8 * 20_000, ids.size());
+    }
+
+    @Test
+    void testLowerBoundSplitsByCreationTime() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+        String before = generator.newId();
+        clock.incrementAndGet();
+        String from = generator.newId();
+
+        String bound = generator.lowerBound(clock.get()).orElseThrow();
+
+        CommonUtils.validateUUID(bound, "bound");
+        Assertions.assertTrue(before.compareTo(bound) < 0);
+        Assertions.assertTrue(bound.compareTo(from) < 0);
+        Assertions.assertTrue(new RandomIdGenerator().lowerBound(clock.get()).isEmpty());
+    }
+
+    @Test
+    void testLowerBoundAtTheEpochIsBelowEveryId() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 0L);
+        String first = generator.newId();
+
+        String bound = generator.lowerBound(0).orElseThrow();
+
+        CommonUtils.validateUUID(bound, "bound");
+        Assertions.assertTrue(bound.compareTo(first) < 0);
+        Assertions.assertEquals(bound, generator.lowerBound(-1).orElseThrow());
+    }
+}